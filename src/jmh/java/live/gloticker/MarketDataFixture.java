@@ -0,0 +1,95 @@
+package live.gloticker;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+
+// 벤치마크 입력: 스크래퍼가 Redis 에 쓰는 값과 같은 {"SYMBOL": {...}} 모양의 JSON
+public final class MarketDataFixture {
+	public static final int STOCKS = 100;
+	public static final int INDICES = 10;
+	public static final int CRYPTOS = 30;
+	public static final int FOREX = 10;
+
+	private MarketDataFixture() {
+	}
+
+	// snapshot:* 키 하나당 값 하나
+	public static List<String> snapshotValues() {
+		return List.of(indices(), stocks(), cryptos(), forex());
+	}
+
+	public static byte[] cryptoMessage(int symbols) {
+		return cryptos(symbols).getBytes(StandardCharsets.UTF_8);
+	}
+
+	public static String stocks() {
+		StringBuilder json = new StringBuilder("{");
+		for (int i = 0; i < STOCKS; i++) {
+			double price = 50 + i * 3.17;
+			entry(json, "STK" + i,
+				"current_price", price,
+				"market_cap", String.format(Locale.ROOT, "%.2f B", price * 7.3),
+				"change", 1.25,
+				"change_percent", 0.84,
+				"market_state", i % 3 == 0 ? "POSTPOST" : "REGULAR",
+				"otc_price", price - 0.14,
+				"otc_change", -0.14,
+				"otc_change_percent", -0.07);
+		}
+		return json.append('}').toString();
+	}
+
+	public static String indices() {
+		StringBuilder json = new StringBuilder("{");
+		for (int i = 0; i < INDICES; i++) {
+			entry(json, "^IDX" + i, "current_value", 4000 + i * 512.5, "change", -12.5, "change_percent", -0.31);
+		}
+		entry(json, "Fear&Greed", "score", 61, "rating", "greed");
+		return json.append('}').toString();
+	}
+
+	public static String cryptos() {
+		return cryptos(CRYPTOS);
+	}
+
+	public static String forex() {
+		StringBuilder json = new StringBuilder("{");
+		for (int i = 0; i < FOREX; i++) {
+			entry(json, "FX" + i, "rate", 1.05 + i * 0.11, "change", 0.002, "change_percent", 0.19);
+		}
+		return json.append('}').toString();
+	}
+
+	private static String cryptos(int count) {
+		StringBuilder json = new StringBuilder("{");
+		for (int i = 0; i < count; i++) {
+			entry(json, "CRY" + i,
+				"current_price", 97012.1 / (i + 1),
+				"change_24h", 812.4,
+				"change_percent_24h", 0.85,
+				"volume_24h", "31.2 B");
+		}
+		entry(json, "BTC.D", "value", 61.42);
+		return json.append('}').toString();
+	}
+
+	// 값은 모두 문자열, 스크래퍼가 숫자도 문자열로 씀
+	private static void entry(StringBuilder json, String symbol, Object... fields) {
+		if (json.length() > 1) {
+			json.append(',');
+		}
+		json.append('"').append(symbol).append("\":{");
+		for (int i = 0; i < fields.length; i += 2) {
+			if (i > 0) {
+				json.append(',');
+			}
+			Object value = fields[i + 1];
+			String text = value instanceof Double number
+				? String.format(Locale.ROOT, "%.2f", number)
+				: value.toString();
+			json.append('"').append(fields[i]).append("\":\"").append(text).append('"');
+		}
+		json.append('}');
+	}
+}
@@ -0,0 +1,110 @@
+package live.gloticker.config;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.util.StringUtils;
+
+import jakarta.servlet.http.HttpServletRequest;
+import live.gloticker.constant.FingerprintHash;
+
+// 요청당 fingerprint 비용: 이전 구현 vs 스레드별 버퍼 + SHA256 / Murmur3, B/op 는 gc 프로파일러로 확인
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class BrowserFingerprintBenchmark {
+	private MockHttpServletRequest request;
+	private BrowserFingerprint sha256;
+	private BrowserFingerprint murmur3;
+
+	@Setup
+	public void setUp() {
+		request = new MockHttpServletRequest("GET", "/v1/market/subscribe");
+		request.setRemoteAddr("10.0.0.12");
+		request.addHeader("User-Agent",
+			"Mozilla/5.0 (Macintosh; Intel Mac OS X 10_15_7) AppleWebKit/605.1.15 (KHTML, like Gecko) Version/17.4");
+		request.addHeader("Accept-Language", "en-US,en;q=0.9");
+		request.addHeader("X-Forwarded-For", "203.0.113.7, 10.0.0.2");
+		request.addHeader("Sec-Fetch-Site", "same-origin");
+		request.addHeader("Sec-Fetch-Mode", "cors");
+		sha256 = new BrowserFingerprint(FingerprintHash.SHA256);
+		murmur3 = new BrowserFingerprint(FingerprintHash.MURMUR3);
+	}
+
+	@Benchmark
+	public String legacy() {
+		return LegacyFingerprint.generate(request);
+	}
+
+	@Benchmark
+	public String sha256() {
+		return sha256.generateFingerprint(request);
+	}
+
+	@Benchmark
+	public String murmur3() {
+		return murmur3.generateFingerprint(request);
+	}
+
+	// 최적화 전 BrowserFingerprint 그대로
+	private static final class LegacyFingerprint {
+		private static final String UNKNOWN_VALUE = "unknown";
+		private static final int MAX_HEADER_LENGTH = 1000;
+		private static final Pattern VALID_HEADER_PATTERN = Pattern.compile("[a-zA-Z0-9\\-_.,;: /\\[\\]()]+");
+
+		private static String generate(HttpServletRequest request) {
+			String essentialPart = appendHeaders(request, List.of("User-Agent", "Accept-Language"));
+			String ip = List.of("X-Forwarded-For", "X-Real-IP", "REMOTE_ADDR").stream()
+				.map(header -> getHeaderValue(request, header))
+				.filter(StringUtils::hasText)
+				.filter(value -> !UNKNOWN_VALUE.equalsIgnoreCase(value))
+				.filter(LegacyFingerprint::isValidHeader)
+				.findFirst()
+				.orElseGet(request::getRemoteAddr);
+			ip = "0:0:0:0:0:0:0:1".equals(ip) ? "127.0.0.1" : ip;
+			String securityPart = appendHeaders(request, List.of("Sec-Fetch-Site", "Sec-Fetch-Mode"));
+
+			String fingerprint = String.join("|", essentialPart, ip, securityPart);
+			try {
+				MessageDigest digest = MessageDigest.getInstance("SHA-256");
+				byte[] hash = digest.digest(fingerprint.getBytes(StandardCharsets.UTF_8));
+				return Base64.getEncoder().encodeToString(hash);
+			} catch (NoSuchAlgorithmException e) {
+				return fingerprint;
+			}
+		}
+
+		private static String appendHeaders(HttpServletRequest request, List<String> headers) {
+			return headers.stream()
+				.map(header -> getHeaderValue(request, header))
+				.filter(LegacyFingerprint::isValidHeader)
+				.collect(Collectors.joining("|"));
+		}
+
+		private static String getHeaderValue(HttpServletRequest request, String headerName) {
+			String value = request.getHeader(headerName);
+			return StringUtils.hasText(value) ? value : UNKNOWN_VALUE;
+		}
+
+		private static boolean isValidHeader(String value) {
+			return StringUtils.hasText(value)
+				&& !UNKNOWN_VALUE.equalsIgnoreCase(value)
+				&& value.length() < MAX_HEADER_LENGTH
+				&& VALID_HEADER_PATTERN.matcher(value).matches();
+		}
+	}
+}
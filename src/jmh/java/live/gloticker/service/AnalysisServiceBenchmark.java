@@ -0,0 +1,51 @@
+package live.gloticker.service;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import live.gloticker.MarketDataFixture;
+import live.gloticker.constant.MarketDataType;
+
+// snapshot 의 모든 심볼에 MarketDataType 을 정하는 비용
+// cached: 분류 결과를 기억한 분류기, match: 매번 matcher 를 order 순으로 맞춰 보는 방식
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class AnalysisServiceBenchmark {
+	private final Map<String, Map<String, String>> marketData = new LinkedHashMap<>();
+	private MarketDataClassifier classifier;
+
+	@Setup
+	public void setUp() throws Exception {
+		ObjectMapper objectMapper = new ObjectMapper();
+		for (String value : MarketDataFixture.snapshotValues()) {
+			marketData.putAll(objectMapper.readValue(value, new TypeReference<Map<String, Map<String, String>>>() {
+			}));
+		}
+		classifier = new MarketDataClassifier();
+		marketData.forEach(classifier::classify);
+	}
+
+	@Benchmark
+	public void cached(Blackhole blackhole) {
+		marketData.forEach((symbol, data) -> blackhole.consume(classifier.classify(symbol, data)));
+	}
+
+	@Benchmark
+	public void match(Blackhole blackhole) {
+		marketData.forEach((symbol, data) -> blackhole.consume(MarketDataType.match(symbol, data)));
+	}
+}
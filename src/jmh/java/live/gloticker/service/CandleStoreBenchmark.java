@@ -0,0 +1,52 @@
+package live.gloticker.service;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import live.gloticker.constant.CandleInterval;
+import live.gloticker.dto.Candle;
+
+// 틱 하나를 1m/5m/1h 캔들에 반영하는 비용 (gc.alloc.rate.norm 이 0 이어야 함)과 최근 구간 조회 비용
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class CandleStoreBenchmark {
+	private static final String SYMBOL = "BTC";
+
+	private CandleStore candleStore;
+	private long now;
+	private double price;
+
+	// 캔들이 꽉 찬 상태에서 시작하도록 1분 간격으로 하루치를 채움
+	@Setup
+	public void setUp() {
+		candleStore = new CandleStore(1440, 288, 168, 500);
+		now = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(1);
+		price = 97_000;
+		for (int i = 0; i < 1440; i++) {
+			record();
+			now += 60_000;
+		}
+	}
+
+	// 200ms 간격 틱, 1분마다 새 1m 캔들
+	@Benchmark
+	public void record() {
+		now += 200;
+		price += (now & 1) == 0 ? 1.5 : -1.25;
+		candleStore.record(SYMBOL, price, now);
+	}
+
+	@Benchmark
+	public List<Candle> lastHour() {
+		return candleStore.range(SYMBOL, CandleInterval.ONE_MINUTE, Long.MIN_VALUE, Long.MAX_VALUE, 60);
+	}
+}
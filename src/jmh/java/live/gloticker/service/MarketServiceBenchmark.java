@@ -0,0 +1,37 @@
+package live.gloticker.service;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import live.gloticker.MarketDataFixture;
+
+// /v1/market/{type} 의 getAllData 가 Redis 값 전체를 파싱하는 비용
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MarketServiceBenchmark {
+	private MarketService marketService;
+	private List<String> values;
+
+	@Setup
+	public void setUp() {
+		marketService = new MarketService(null, new ObjectMapper(), new SimpleMeterRegistry(), null);
+		values = MarketDataFixture.snapshotValues();
+	}
+
+	@Benchmark
+	public List<Object> parseJsonData() {
+		return marketService.parseJsonData(values);
+	}
+}
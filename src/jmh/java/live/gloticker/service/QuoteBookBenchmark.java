@@ -0,0 +1,53 @@
+package live.gloticker.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import live.gloticker.MarketDataFixture;
+import live.gloticker.dto.Quote;
+import live.gloticker.stream.MarketMessage;
+
+// QuoteBook 갱신/조회 비용: snapshot 전체 다시 채우기, crypto 틱 하나 반영, 분석용 전체 조회
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class QuoteBookBenchmark {
+	private QuoteBook quoteBook;
+	private List<String> values;
+	private byte[] tick;
+
+	@Setup
+	public void setUp() {
+		quoteBook = new QuoteBook(new MarketDataClassifier(), new CandleStore(1440, 288, 168, 500));
+		values = MarketDataFixture.snapshotValues();
+		tick = MarketDataFixture.cryptos().getBytes(StandardCharsets.UTF_8);
+		quoteBook.replace(values, System.currentTimeMillis());
+	}
+
+	@Benchmark
+	public QuoteBook replace() {
+		quoteBook.replace(values, System.currentTimeMillis());
+		return quoteBook;
+	}
+
+	// 서버처럼 메시지마다 새 MarketMessage, QuoteBook 은 본문을 파서 하나로 훑음
+	@Benchmark
+	public QuoteBook applyTick() {
+		quoteBook.apply(new MarketMessage("crypto.price.stream", tick));
+		return quoteBook;
+	}
+
+	@Benchmark
+	public List<Quote> quotes() {
+		return quoteBook.quotes();
+	}
+}
@@ -0,0 +1,80 @@
+package live.gloticker.stream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+// Redis 메시지 하나를 N명에게 보낼 때의 CPU 비용: 구독자별 인코딩 vs 프레임 1회 인코딩
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SseBroadcastBenchmark {
+	@Param({"100", "1000", "10000"})
+	private int subscribers;
+
+	private byte[] body;
+	private CountingOutputStream sink;
+
+	@Setup
+	public void setUp() {
+		StringBuilder payload = new StringBuilder("{");
+		for (int i = 0; i < 20; i++) {
+			if (i > 0) {
+				payload.append(',');
+			}
+			payload.append("\"SYM").append(i).append("\":{\"current_price\":\"")
+				.append(1000 + i).append(".25\",\"change\":\"1.5\",\"change_percent\":\"0.15\"}");
+		}
+		body = payload.append('}').toString().getBytes(StandardCharsets.UTF_8);
+		sink = new CountingOutputStream();
+	}
+
+	@Benchmark
+	public long encodePerSubscriber() throws IOException {
+		String payload = new String(body, StandardCharsets.UTF_8);
+		for (int i = 0; i < subscribers; i++) {
+			// SseEmitter.send(Object) + StringHttpMessageConverter 가 클라이언트마다 하던 작업
+			Set<DataWithMediaType> items = SseEmitter.event().data(payload).build();
+			for (DataWithMediaType item : items) {
+				sink.write(item.getData().toString().getBytes(StandardCharsets.UTF_8));
+			}
+		}
+		return sink.count;
+	}
+
+	@Benchmark
+	public long encodeOnce() throws IOException {
+		SseFrame frame = SseFrame.data(body);
+		for (int i = 0; i < subscribers; i++) {
+			frame.writeTo(sink);
+		}
+		return sink.count;
+	}
+
+	private static final class CountingOutputStream extends OutputStream {
+		private long count;
+
+		@Override
+		public void write(int b) {
+			count++;
+		}
+
+		@Override
+		public void write(byte[] bytes, int offset, int length) {
+			count += length;
+		}
+	}
+}
@@ -0,0 +1,103 @@
+package live.gloticker.stream;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import live.gloticker.MarketDataFixture;
+import live.gloticker.constant.OverflowPolicy;
+
+// Redis 메시지 하나를 N명의 구독자에게 발행하는 비용 (프레임 인코딩 + 구독자 큐 적재)
+// 실제 쓰기는 writer 풀이 버리는 연결로 처리하므로 발행 스레드 쪽 처리량만 잼
+// writer 4개와 ticker 스레드는 발행 스레드와 같은 코어를 나눠 쓰므로 코어가 적은 장비에서는 함께 보고 비교
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class StreamFanoutBenchmark {
+	private static final String CHANNEL = "crypto.price.stream";
+
+	@Param({"1000", "10000", "50000"})
+	private int subscribers;
+
+	// all: 채널 전체 구독, symbols: 구독자마다 심볼 3개 필터
+	@Param({"all", "symbols"})
+	private String filter;
+
+	private StreamFanout fanout;
+	private byte[] body;
+
+	@Setup
+	public void setUp() {
+		body = MarketDataFixture.cryptoMessage(MarketDataFixture.CRYPTOS);
+		fanout = new StreamFanout(new SimpleMeterRegistry(), new NoSnapshot(),
+			4, 64, OverflowPolicy.DROP_OLDEST, 1024,
+			Duration.ZERO, Duration.ofMillis(50), 0, 1,
+			Duration.ofSeconds(1), Duration.ofSeconds(15), Duration.ofSeconds(45), Duration.ofMinutes(30));
+		for (int i = 0; i < subscribers; i++) {
+			List<String> symbols = "symbols".equals(filter)
+				? List.of("CRY" + i % 30, "CRY" + (i + 7) % 30, "BTC.D")
+				: List.of();
+			Subscription subscription = Subscription.of(List.of("crypto"), symbols, null);
+			fanout.register("client-" + i, new DiscardingConnection(), subscription, null);
+		}
+	}
+
+	// 파라미터 조합마다 새 StreamFanout 을 만들므로 스레드가 쌓이지 않도록 닫음
+	@TearDown
+	public void tearDown() throws InterruptedException {
+		for (int i = 0; i < subscribers; i++) {
+			fanout.remove("client-" + i);
+		}
+		fanout.shutdown();
+	}
+
+	@Benchmark
+	public void publish() {
+		fanout.publish(new MarketMessage(CHANNEL, body, System.nanoTime()));
+	}
+
+	// 서버에서는 MarketDataCache 가 스냅샷 원본, 여기서는 발행 경로만 재므로 아무것도 담지 않음
+	private static final class NoSnapshot implements SnapshotSource {
+		@Override
+		public void apply(MarketMessage message) {
+		}
+
+		@Override
+		public byte[] encode(Subscription subscription) {
+			return null;
+		}
+	}
+
+	private static final class DiscardingConnection implements SseConnection {
+		private long written;
+
+		@Override
+		public boolean isReady() {
+			return true;
+		}
+
+		@Override
+		public void write(SseFrame frame) {
+			written += frame.length();
+		}
+
+		@Override
+		public void flush() {
+		}
+
+		@Override
+		public void close() {
+		}
+	}
+}
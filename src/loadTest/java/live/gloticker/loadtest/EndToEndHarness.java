@@ -0,0 +1,221 @@
+package live.gloticker.loadtest;
+
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+// 한 장비 안에서 끝나는 종단 간 부하/지연 측정, 네트워크 접근 없음
+// 1. 인메모리 Redis(RespStandIn)를 띄우고 snapshot:* 키를 채움
+// 2. bootJar 를 자식 프로세스로 띄움 (Redis 는 stand-in, OpenAI 는 닿지 않는 주소)
+// 3. 구독자를 모두 붙인 뒤 발행을 시작, 워밍업이 끝난 뒤 구간의 지연/CPU 를 잼
+// 사용: ./gradlew e2eTest -Pe2e.clients=5000 -Pe2e.slowPercent=5 -Pe2e.seconds=60
+public final class EndToEndHarness {
+	private static final List<String> CHANNELS = List.of(
+		MarketPublisher.INDEX, MarketPublisher.STOCK, MarketPublisher.CRYPTO, MarketPublisher.FOREX);
+
+	private EndToEndHarness() {
+	}
+
+	public static void main(String[] args) throws Exception {
+		String jar = System.getProperty("e2e.jar");
+		if (jar == null || !new File(jar).isFile()) {
+			throw new IllegalArgumentException("e2e.jar must point to the boot jar: " + jar);
+		}
+		int clients = Integer.getInteger("e2e.clients", 2_000);
+		int slowPercent = Integer.getInteger("e2e.slowPercent", 5);
+		int filterPercent = Integer.getInteger("e2e.filterPercent", 20);
+		int slowBytesPerSecond = Integer.getInteger("e2e.slowBytesPerSecond", 4_096);
+		double tickHz = Double.parseDouble(System.getProperty("e2e.tickHz", "2"));
+		int warmupSeconds = Integer.getInteger("e2e.warmupSeconds", 10);
+		int seconds = Integer.getInteger("e2e.seconds", 30);
+		int selectors = Integer.getInteger("e2e.selectors",
+			Math.max(1, Runtime.getRuntime().availableProcessors() / 4));
+		String ingestSource = System.getProperty("e2e.ingestSource", "PUBSUB").toUpperCase(Locale.ROOT);
+
+		try (RespStandIn redis = RespStandIn.start();
+			MarketPublisher publisher = new MarketPublisher(redis, "STREAMS".equals(ingestSource))) {
+			publisher.seedSnapshots();
+			int port = freePort();
+			URI target = URI.create("http://127.0.0.1:" + port);
+			Process server = startServer(jar, port, redis.port(), ingestSource);
+			try {
+				awaitReady(target, server, Duration.ofSeconds(90));
+				run(target, server, publisher, clients, slowPercent, filterPercent, slowBytesPerSecond, tickHz,
+					warmupSeconds, seconds, selectors);
+			} finally {
+				server.destroy();
+				server.waitFor();
+			}
+		}
+	}
+
+	private static void run(URI target, Process server, MarketPublisher publisher, int clientCount,
+		int slowPercent, int filterPercent, int slowBytesPerSecond, double tickHz, int warmupSeconds, int seconds,
+		int selectors) throws Exception {
+		Prometheus idle = Prometheus.scrape(target);
+		System.out.printf("server idle: heap=%.1fMB%n", idle.heapBytes() / (1024 * 1024));
+
+		long connectStarted = System.nanoTime();
+		try (SseClients clients = new SseClients(target, clientCount, slowPercent, filterPercent,
+			slowBytesPerSecond, selectors)) {
+			int connected = clients.awaitConnected(Duration.ofSeconds(120).toNanos());
+			System.out.printf("connected %d/%d in %dms (failed %d)%n", connected, clientCount,
+				(System.nanoTime() - connectStarted) / 1_000_000, clients.failed());
+			if (connected == 0) {
+				throw new IllegalStateException("No subscriber connected, see build/e2e/server.log");
+			}
+
+			// 발행 전 힙: GC 직후 값이 아니므로 연결이 많을수록 믿을 만함
+			Prometheus subscribed = Prometheus.scrape(target);
+			double heapPerConnection = (subscribed.heapBytes() - idle.heapBytes()) / connected;
+
+			publisher.start(tickHz);
+			Thread.sleep(Duration.ofSeconds(warmupSeconds).toMillis());
+
+			long measureStarted = System.nanoTime();
+			clients.measureFrom(measureStarted);
+			Duration serverCpuBefore = cpu(server.toHandle());
+			Duration clientCpuBefore = cpu(ProcessHandle.current());
+			Prometheus before = Prometheus.scrape(target);
+			Thread.sleep(Duration.ofSeconds(seconds).toMillis());
+			publisher.close();
+			long measured = System.nanoTime() - measureStarted;
+			Duration serverCpu = cpu(server.toHandle()).minus(serverCpuBefore);
+			Duration clientCpu = cpu(ProcessHandle.current()).minus(clientCpuBefore);
+
+			// 이미 큐에 쌓인 이벤트가 빠질 시간
+			Thread.sleep(2_000);
+			Prometheus after = Prometheus.scrape(target);
+			SseClients.Result result = clients.stop();
+			report(publisher, clients, result, before, after, heapPerConnection, connected, serverCpu, clientCpu,
+				measured);
+		}
+	}
+
+	private static void report(MarketPublisher publisher, SseClients clients, SseClients.Result result,
+		Prometheus before, Prometheus after, double heapPerConnection, int connected, Duration serverCpu,
+		Duration clientCpu, long measuredNanos) {
+		System.out.println();
+		System.out.print("published:");
+		for (String channel : CHANNELS) {
+			System.out.printf(" %s=%d", channel, publisher.published(channel));
+		}
+		System.out.println();
+		System.out.printf("clients: %d connected (%d all channels, %d filtered, %d slow), %d closed by server%n",
+			connected, result.allClients, result.filteredClients, result.slowClients, clients.closedByServer());
+
+		// 발행 전에 붙었으므로 빠짐없이 받았다면 전체 구독자는 발행 수, 필터 구독자는 crypto 발행 수만큼 받음
+		System.out.println();
+		received("all channels", result.allEvents, result.allClients, publisher.publishedTotal());
+		received("filtered", result.filteredEvents, result.filteredClients,
+			publisher.published(MarketPublisher.CRYPTO));
+		latency("fast clients", result.fastLatency);
+		latency("slow clients", result.slowLatency);
+
+		System.out.println();
+		System.out.printf("server dropped frames: %.0f, conflated clients: %.0f%n",
+			after.sum("stream_client_dropped_total") - before.sum("stream_client_dropped_total"),
+			after.sum("stream_client_conflated_total") - before.sum("stream_client_conflated_total"));
+		for (String reason : List.of("overflow", "stalled", "lifetime", "send_failure")) {
+			String label = "reason=\"" + reason + "\"";
+			System.out.printf("server disconnected (%s): %.0f%n", reason,
+				after.sum("stream_client_disconnected_total", label)
+					- before.sum("stream_client_disconnected_total", label));
+		}
+
+		double seconds = measuredNanos / 1e9;
+		System.out.println();
+		System.out.printf("heap per idle connection: %.0f bytes%n", heapPerConnection);
+		System.out.printf("heap after run: %.1fMB%n", after.heapBytes() / (1024 * 1024));
+		System.out.printf("server cpu: %.2f cores, %.1f us/s per connection%n",
+			serverCpu.toNanos() / 1e9 / seconds, serverCpu.toNanos() / 1e3 / seconds / connected);
+		// 클라이언트가 같은 장비의 코어를 나눠 쓰므로 함께 봐야 함
+		System.out.printf("harness cpu: %.2f cores%n", clientCpu.toNanos() / 1e9 / seconds);
+	}
+
+	private static void received(String group, long events, int clients, long expectedPerClient) {
+		if (clients == 0) {
+			return;
+		}
+		long expected = expectedPerClient * clients;
+		System.out.printf("%-13s received %d/%d events (missing %.2f%%)%n", group, events, expected,
+			expected == 0 ? 0 : 100.0 * (expected - events) / expected);
+	}
+
+	private static void latency(String group, LatencyHistogram histogram) {
+		if (histogram.count() == 0) {
+			return;
+		}
+		System.out.printf("%-13s latency ms: p50=%.3f p90=%.3f p99=%.3f p99.9=%.3f max=%.3f (n=%d)%n", group,
+			histogram.percentileMillis(50), histogram.percentileMillis(90), histogram.percentileMillis(99),
+			histogram.percentileMillis(99.9), histogram.maxMillis(), histogram.count());
+	}
+
+	private static Process startServer(String jar, int port, int redisPort, String ingestSource)
+		throws IOException {
+		List<String> command = new ArrayList<>(List.of(
+			ProcessHandle.current().info().command().orElse("java"),
+			"-Xmx" + System.getProperty("e2e.serverHeap", "1g"),
+			"-jar", jar,
+			"--server.port=" + port,
+			"--stream.ingest.source=" + ingestSource,
+			"--logging.level.live.gloticker=INFO"));
+		String serverArgs = System.getProperty("e2e.serverArgs", "").trim();
+		if (!serverArgs.isEmpty()) {
+			command.addAll(Arrays.asList(serverArgs.split("\\s+")));
+		}
+		File log = new File("build/e2e/server.log");
+		log.getParentFile().mkdirs();
+		ProcessBuilder builder = new ProcessBuilder(command).redirectErrorStream(true).redirectOutput(log);
+		Map<String, String> env = builder.environment();
+		env.put("REDIS_HOST", "127.0.0.1");
+		env.put("REDIS_PORT", Integer.toString(redisPort));
+		env.put("REDIS_PASSWORD", "");
+		// 시작 시 분석 호출은 실패하고 로그만 남김
+		env.put("OPENAI_API_KEY", "e2e");
+		env.put("OPENAI_API_URL", "http://127.0.0.1:1/");
+		System.out.printf("starting server on %d (redis stand-in on %d, ingest %s), log: %s%n", port, redisPort,
+			ingestSource, log);
+		return builder.start();
+	}
+
+	private static void awaitReady(URI target, Process server, Duration timeout) throws InterruptedException {
+		HttpClient client = HttpClient.newHttpClient();
+		HttpRequest ping = HttpRequest.newBuilder(target.resolve("/ping")).timeout(Duration.ofSeconds(1)).build();
+		long deadline = System.nanoTime() + timeout.toNanos();
+		while (System.nanoTime() < deadline) {
+			if (!server.isAlive()) {
+				throw new IllegalStateException("Server exited with " + server.exitValue());
+			}
+			try {
+				if (client.send(ping, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+					return;
+				}
+			} catch (IOException e) {
+				// 아직 뜨는 중
+			}
+			Thread.sleep(500);
+		}
+		throw new IllegalStateException("Server did not become ready within " + timeout);
+	}
+
+	private static Duration cpu(ProcessHandle process) {
+		return process.info().totalCpuDuration().orElse(Duration.ZERO);
+	}
+
+	private static int freePort() throws IOException {
+		try (ServerSocket socket = new ServerSocket(0)) {
+			return socket.getLocalPort();
+		}
+	}
+}
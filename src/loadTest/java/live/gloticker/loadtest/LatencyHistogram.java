@@ -0,0 +1,74 @@
+package live.gloticker.loadtest;
+
+import java.util.Arrays;
+
+// 지연 히스토그램, 100ms 까지는 1us 간격, 그 위로 60s 까지는 1ms 간격 (넘으면 마지막 칸)
+// 한 스레드만 기록하고, 합치기/조회는 기록이 끝난 뒤에 함
+final class LatencyHistogram {
+	private static final int FINE_LIMIT_MICROS = 100_000;
+	private static final int COARSE_LIMIT_MILLIS = 60_000;
+
+	private final long[] fine = new long[FINE_LIMIT_MICROS];
+	private final long[] coarse = new long[COARSE_LIMIT_MILLIS + 1];
+	private long count;
+	private long maxNanos;
+
+	void record(long nanos) {
+		long micros = Math.max(0, nanos / 1_000);
+		if (micros < FINE_LIMIT_MICROS) {
+			fine[(int)micros]++;
+		} else {
+			coarse[(int)Math.min(COARSE_LIMIT_MILLIS, micros / 1_000)]++;
+		}
+		count++;
+		maxNanos = Math.max(maxNanos, nanos);
+	}
+
+	void add(LatencyHistogram other) {
+		for (int i = 0; i < fine.length; i++) {
+			fine[i] += other.fine[i];
+		}
+		for (int i = 0; i < coarse.length; i++) {
+			coarse[i] += other.coarse[i];
+		}
+		count += other.count;
+		maxNanos = Math.max(maxNanos, other.maxNanos);
+	}
+
+	void reset() {
+		Arrays.fill(fine, 0);
+		Arrays.fill(coarse, 0);
+		count = 0;
+		maxNanos = 0;
+	}
+
+	long count() {
+		return count;
+	}
+
+	// 칸의 위쪽 경계를 돌려주므로 실제 값보다 최대 한 칸만큼 큼
+	double percentileMillis(double percentile) {
+		if (count == 0) {
+			return Double.NaN;
+		}
+		long rank = (long)Math.ceil(count * percentile / 100);
+		long seen = 0;
+		for (int i = 0; i < fine.length; i++) {
+			seen += fine[i];
+			if (seen >= rank) {
+				return (i + 1) / 1_000.0;
+			}
+		}
+		for (int i = 0; i < coarse.length; i++) {
+			seen += coarse[i];
+			if (seen >= rank) {
+				return i + 1;
+			}
+		}
+		return maxMillis();
+	}
+
+	double maxMillis() {
+		return maxNanos / 1_000_000.0;
+	}
+}
@@ -0,0 +1,173 @@
+package live.gloticker.loadtest;
+
+import java.io.Closeable;
+import java.nio.charset.StandardCharsets;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+// 스크래퍼와 같은 {"SYMBOL": {...}} 모양의 시세를 채널마다 tickHz 로 stand-in 에 발행
+// 가격은 심볼마다 랜덤 워크, 모든 값은 스크래퍼처럼 문자열
+// streams 이면 PUBLISH 대신 채널 이름의 스트림에 XADD <channel> * data <json> 으로 넣음
+// 심볼마다 published_at(이 프로세스의 System.nanoTime)을 넣어 클라이언트가 발행-수신 지연을 잼
+final class MarketPublisher implements Closeable {
+	static final String MARKER_FIELD = "published_at";
+	// stream.ingest.streams.field 기본값
+	private static final byte[] STREAM_FIELD = "data".getBytes(StandardCharsets.UTF_8);
+	// StreamChannel 과 같은 이름
+	static final String INDEX = "index.price.stream";
+	static final String STOCK = "stock.price.stream";
+	static final String CRYPTO = "crypto.price.stream";
+	static final String FOREX = "forex.price.stream";
+	// 필터 구독자가 고르는 심볼, 모두 crypto 채널에 있음
+	static final List<String> FILTER_SYMBOLS = List.of("BTC", "ETH", "SOL");
+
+	private static final List<String> INDICES = List.of(
+		"^GSPC", "^DJI", "^IXIC", "^RUT", "^VIX", "^KS11", "^KQ11", "^N225", "^FTSE", "^GDAXI");
+	private static final List<String> CRYPTOS = List.of(
+		"BTC", "ETH", "SOL", "XRP", "BNB", "DOGE", "ADA", "TRX", "AVAX", "LINK",
+		"TON", "SHIB", "DOT", "BCH", "NEAR", "LTC", "UNI", "APT", "ICP", "ETC",
+		"XLM", "ATOM", "FIL", "ARB", "OP", "HBAR", "VET", "INJ", "SUI", "SEI");
+	private static final List<String> FOREX_PAIRS = List.of(
+		"USDKRW", "EURUSD", "USDJPY", "GBPUSD", "AUDUSD", "USDCAD", "USDCHF", "USDCNY", "EURKRW", "JPYKRW");
+	private static final int STOCKS = 100;
+
+	private final RespStandIn redis;
+	private final boolean streams;
+	private final Random random = new Random(42);
+	private final Map<String, double[]> prices = new LinkedHashMap<>();
+	private final Map<String, AtomicLong> published = new LinkedHashMap<>();
+	private final ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(1, task -> {
+		Thread thread = new Thread(task, "market-publisher");
+		thread.setDaemon(true);
+		return thread;
+	});
+
+	MarketPublisher(RespStandIn redis, boolean streams) {
+		this.redis = redis;
+		this.streams = streams;
+		prices.put(INDEX, initialPrices(INDICES.size(), 4_000));
+		prices.put(STOCK, initialPrices(STOCKS, 150));
+		prices.put(CRYPTO, initialPrices(CRYPTOS.size(), 100));
+		prices.put(FOREX, initialPrices(FOREX_PAIRS.size(), 1.2));
+		prices.keySet().forEach(channel -> published.put(channel, new AtomicLong()));
+	}
+
+	// MarketDataCache 가 시작할 때 읽는 snapshot:* 키
+	void seedSnapshots() {
+		for (String channel : prices.keySet()) {
+			redis.set("snapshot:" + channel.substring(0, channel.indexOf('.')), payload(channel));
+		}
+	}
+
+	// 채널마다 1/tickHz 간격으로 발행, 채널 사이 시작 시점은 엇갈리게 둠
+	void start(double tickHz) {
+		long periodNanos = (long)(1_000_000_000L / tickHz);
+		int offset = 0;
+		for (String channel : prices.keySet()) {
+			long initialDelay = periodNanos * offset++ / prices.size();
+			scheduler.scheduleAtFixedRate(() -> publish(channel), initialDelay, periodNanos, TimeUnit.NANOSECONDS);
+		}
+	}
+
+	long published(String channel) {
+		return published.get(channel).get();
+	}
+
+	long publishedTotal() {
+		return published.values().stream().mapToLong(AtomicLong::get).sum();
+	}
+
+	@Override
+	public void close() {
+		scheduler.shutdownNow();
+	}
+
+	private void publish(String channel) {
+		if (streams) {
+			redis.add(channel, List.of(STREAM_FIELD, payload(channel)));
+		} else {
+			redis.publish(channel, payload(channel));
+		}
+		published.get(channel).incrementAndGet();
+	}
+
+	private byte[] payload(String channel) {
+		double[] values = prices.get(channel);
+		for (int i = 0; i < values.length; i++) {
+			values[i] *= 1 + (random.nextGaussian() * 0.001);
+		}
+		String publishedAt = Long.toString(System.nanoTime());
+		StringBuilder json = new StringBuilder("{");
+		switch (channel) {
+			case INDEX -> {
+				for (int i = 0; i < values.length; i++) {
+					entry(json, INDICES.get(i), publishedAt,
+						"current_value", values[i], "change", values[i] * 0.003, "change_percent", 0.31);
+				}
+				entry(json, "Fear&Greed", publishedAt, "score", "61", "rating", "greed");
+			}
+			case STOCK -> {
+				for (int i = 0; i < values.length; i++) {
+					entry(json, String.format(Locale.ROOT, "S%03d", i), publishedAt,
+						"current_price", values[i],
+						"market_cap", String.format(Locale.ROOT, "%.2f B", values[i] * 7.3),
+						"change", values[i] * 0.008,
+						"change_percent", 0.84,
+						"market_state", "REGULAR",
+						"otc_price", values[i] * 0.999,
+						"otc_change", -0.14,
+						"otc_change_percent", -0.07);
+				}
+			}
+			case CRYPTO -> {
+				for (int i = 0; i < values.length; i++) {
+					entry(json, CRYPTOS.get(i), publishedAt,
+						"current_price", values[i],
+						"change_24h", values[i] * 0.0085,
+						"change_percent_24h", 0.85,
+						"volume_24h", "31.2 B");
+				}
+				entry(json, "BTC.D", publishedAt, "value", 61.42);
+			}
+			default -> {
+				for (int i = 0; i < values.length; i++) {
+					entry(json, FOREX_PAIRS.get(i), publishedAt,
+						"rate", values[i], "change", values[i] * 0.002, "change_percent", 0.19);
+				}
+			}
+		}
+		return json.append('}').toString().getBytes(StandardCharsets.UTF_8);
+	}
+
+	private double[] initialPrices(int count, double base) {
+		double[] values = new double[count];
+		for (int i = 0; i < count; i++) {
+			values[i] = base * (0.5 + random.nextDouble());
+		}
+		return values;
+	}
+
+	private static void entry(StringBuilder json, String symbol, String publishedAt, Object... fields) {
+		if (json.length() > 1) {
+			json.append(',');
+		}
+		json.append('"').append(symbol).append("\":{");
+		Consumer<String> field = name -> json.append('"').append(name).append("\":\"");
+		for (int i = 0; i < fields.length; i += 2) {
+			field.accept(fields[i].toString());
+			Object value = fields[i + 1];
+			json.append(value instanceof Double number ? String.format(Locale.ROOT, "%.2f", number) : value)
+				.append("\",");
+		}
+		field.accept(MARKER_FIELD);
+		json.append(publishedAt).append("\"}");
+	}
+}
@@ -0,0 +1,51 @@
+package live.gloticker.loadtest;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// /actuator/prometheus 한 번 읽은 결과, 키는 "이름{라벨}" 그대로
+record Prometheus(Map<String, Double> series) {
+	private static final HttpClient CLIENT = HttpClient.newHttpClient();
+
+	static Prometheus scrape(URI target) throws IOException, InterruptedException {
+		HttpRequest request = HttpRequest.newBuilder(target.resolve("/actuator/prometheus")).build();
+		String body = CLIENT.send(request, HttpResponse.BodyHandlers.ofString()).body();
+		Map<String, Double> series = new LinkedHashMap<>();
+		for (String line : body.split("\n")) {
+			if (line.isEmpty() || line.startsWith("#")) {
+				continue;
+			}
+			int space = line.lastIndexOf(' ');
+			series.put(line.substring(0, space), Double.parseDouble(line.substring(space + 1)));
+		}
+		return new Prometheus(series);
+	}
+
+	// 이름이 같은 시계열 중 라벨 조각을 모두 포함하는 것의 합
+	double sum(String name, String... labels) {
+		double total = 0;
+		for (Map.Entry<String, Double> entry : series.entrySet()) {
+			String key = entry.getKey();
+			if (!key.equals(name) && !key.startsWith(name + "{")) {
+				continue;
+			}
+			boolean matches = true;
+			for (String label : labels) {
+				matches &= key.contains(label);
+			}
+			if (matches) {
+				total += entry.getValue();
+			}
+		}
+		return total;
+	}
+
+	double heapBytes() {
+		return sum("jvm_memory_used_bytes", "area=\"heap\"");
+	}
+}
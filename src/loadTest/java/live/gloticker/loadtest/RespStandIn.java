@@ -0,0 +1,543 @@
+package live.gloticker.loadtest;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+// 부하 테스트용 인메모리 Redis, 서버가 쓰는 명령만 RESP2 로 흉내 냄
+// - 문자열(GET/SET/MGET/DEL/SCAN), 해시(HGETALL/HSET), PSUBSCRIBE/PUBLISH
+// - 스트림(XADD/XREAD BLOCK COUNT/XREVRANGE), id 는 * 자동 생성만 받고 스트림마다 최근 MAX_STREAM_LENGTH 개만 남김
+// - HELLO 는 거절해서 Lettuce 가 RESP2 로 내려오게 하고, 연결 관리 명령은 OK
+// - bucket4j 의 CAS 스크립트(EVAL)는 항상 성공으로 답하므로 분산 rate limit 상태는 남지 않음
+final class RespStandIn implements Closeable {
+	private static final byte[] CRLF = {'\r', '\n'};
+	private static final int MAX_STREAM_LENGTH = 10_000;
+
+	private final ServerSocket serverSocket;
+	private final Map<String, byte[]> strings = new ConcurrentHashMap<>();
+	private final Map<String, Map<String, byte[]>> hashes = new ConcurrentHashMap<>();
+	private final List<PatternSubscription> subscriptions = new CopyOnWriteArrayList<>();
+	// 스트림 키 -> 오래된 순 레코드, 이 맵의 모니터로 XADD 와 XREAD BLOCK 을 맞춤
+	private final Map<String, List<StreamRecord>> streams = new HashMap<>();
+	private long lastStreamMillis;
+	private long lastStreamSequence;
+
+	private RespStandIn(ServerSocket serverSocket) {
+		this.serverSocket = serverSocket;
+	}
+
+	static RespStandIn start() throws IOException {
+		RespStandIn standIn = new RespStandIn(new ServerSocket(0, 50, InetAddress.getLoopbackAddress()));
+		daemon("resp-accept", standIn::accept).start();
+		return standIn;
+	}
+
+	int port() {
+		return serverSocket.getLocalPort();
+	}
+
+	void set(String key, byte[] value) {
+		strings.put(key, value);
+	}
+
+	// 패턴이 맞는 구독 연결마다 pmessage 를 바로 씀, 받는 쪽이 느리면 발행 스레드가 기다림
+	int publish(String channel, byte[] message) {
+		int receivers = 0;
+		for (PatternSubscription subscription : subscriptions) {
+			if (matches(subscription.pattern, channel)) {
+				subscription.connection.push("pmessage", subscription.pattern, channel, message);
+				receivers++;
+			}
+		}
+		return receivers;
+	}
+
+	// XADD key * field value ..., 기다리던 XREAD BLOCK 을 깨움
+	String add(String key, List<byte[]> fieldValues) {
+		synchronized (streams) {
+			long now = System.currentTimeMillis();
+			if (now > lastStreamMillis) {
+				lastStreamMillis = now;
+				lastStreamSequence = 0;
+			} else {
+				lastStreamSequence++;
+			}
+			StreamRecord record = new StreamRecord(lastStreamMillis, lastStreamSequence, List.copyOf(fieldValues));
+			List<StreamRecord> records = streams.computeIfAbsent(key, name -> new ArrayList<>());
+			records.add(record);
+			if (records.size() > MAX_STREAM_LENGTH) {
+				records.subList(0, records.size() - MAX_STREAM_LENGTH).clear();
+			}
+			streams.notifyAll();
+			return record.id();
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		serverSocket.close();
+	}
+
+	private void accept() {
+		while (!serverSocket.isClosed()) {
+			try {
+				Socket socket = serverSocket.accept();
+				socket.setTcpNoDelay(true);
+				daemon("resp-connection", () -> serve(socket)).start();
+			} catch (IOException e) {
+				return;
+			}
+		}
+	}
+
+	private void serve(Socket socket) {
+		Connection connection = null;
+		try (socket) {
+			InputStream in = new BufferedInputStream(socket.getInputStream());
+			connection = new Connection(new BufferedOutputStream(socket.getOutputStream()));
+			List<byte[]> command;
+			while ((command = readCommand(in)) != null) {
+				execute(connection, command, in.available() == 0);
+			}
+		} catch (IOException e) {
+			// 서버 종료 시 연결이 끊기는 것은 정상
+		} finally {
+			Connection closed = connection;
+			subscriptions.removeIf(subscription -> subscription.connection == closed);
+		}
+	}
+
+	private void execute(Connection connection, List<byte[]> command, boolean flush) throws IOException {
+		String name = text(command.get(0)).toUpperCase(Locale.ROOT);
+		List<byte[]> args = command.subList(1, command.size());
+		synchronized (connection) {
+			Reply reply = new Reply(connection.out);
+			switch (name) {
+				case "PING" -> reply.simple("PONG");
+				case "HELLO" -> reply.error("ERR unknown command 'HELLO'");
+				case "AUTH", "SELECT", "CLIENT", "READONLY", "RESET" -> reply.simple("OK");
+				case "QUIT" -> {
+					reply.simple("OK");
+					connection.out.flush();
+					throw new EOFException();
+				}
+				case "INFO" -> reply.bulk("# Server\r\nredis_version:7.2.0\r\n".getBytes(StandardCharsets.US_ASCII));
+				case "COMMAND" -> reply.array(0);
+				case "GET" -> reply.bulk(strings.get(text(args.get(0))));
+				case "SET" -> set(reply, args);
+				case "MGET" -> {
+					reply.array(args.size());
+					args.forEach(key -> reply.bulk(strings.get(text(key))));
+				}
+				case "DEL" -> reply.integer(args.stream().filter(key -> strings.remove(text(key)) != null).count());
+				case "EXISTS" -> reply.integer(args.stream().filter(key -> strings.containsKey(text(key))).count());
+				case "SCAN" -> scan(reply, args);
+				case "HGETALL" -> hashGetAll(reply, text(args.get(0)));
+				case "HSET", "HMSET" -> hashSet(reply, name, args);
+				case "PSUBSCRIBE" -> {
+					for (byte[] pattern : args) {
+						subscriptions.add(new PatternSubscription(text(pattern), connection));
+						reply.array(3);
+						reply.bulk("psubscribe");
+						reply.bulk(pattern);
+						reply.integer(subscriptions.stream().filter(s -> s.connection == connection).count());
+					}
+				}
+				case "PUNSUBSCRIBE" -> {
+					subscriptions.removeIf(subscription -> subscription.connection == connection);
+					reply.array(3);
+					reply.bulk("punsubscribe");
+					reply.bulk(args.isEmpty() ? null : args.get(0));
+					reply.integer(0);
+				}
+				case "PUBLISH" -> reply.integer(publish(text(args.get(0)), args.get(1)));
+				case "XADD" -> streamAdd(reply, args);
+				case "XREAD" -> streamRead(reply, args);
+				case "XREVRANGE" -> streamRevRange(reply, args);
+				case "EVAL", "EVALSHA" -> reply.integer(1);
+				default -> reply.error("ERR unknown command '" + name + "'");
+			}
+			if (flush) {
+				connection.out.flush();
+			}
+		}
+	}
+
+	// SET key value [NX|XX] [PX ms|EX s ...], 만료는 무시
+	private void set(Reply reply, List<byte[]> args) {
+		String key = text(args.get(0));
+		boolean nx = args.stream().skip(2).anyMatch(arg -> "NX".equalsIgnoreCase(text(arg)));
+		if (nx) {
+			reply.simpleOrNull(strings.putIfAbsent(key, args.get(1)) == null ? "OK" : null);
+			return;
+		}
+		strings.put(key, args.get(1));
+		reply.simple("OK");
+	}
+
+	// 커서 없이 한 번에 전부 돌려줌
+	private void scan(Reply reply, List<byte[]> args) {
+		String pattern = "*";
+		for (int i = 1; i < args.size() - 1; i++) {
+			if ("MATCH".equalsIgnoreCase(text(args.get(i)))) {
+				pattern = text(args.get(i + 1));
+			}
+		}
+		List<String> keys = new ArrayList<>();
+		for (String key : strings.keySet()) {
+			if (matches(pattern, key)) {
+				keys.add(key);
+			}
+		}
+		reply.array(2);
+		reply.bulk("0");
+		reply.array(keys.size());
+		keys.forEach(reply::bulk);
+	}
+
+	private void hashGetAll(Reply reply, String key) {
+		Map<String, byte[]> hash = hashes.getOrDefault(key, Map.of());
+		reply.array(hash.size() * 2);
+		hash.forEach((field, value) -> {
+			reply.bulk(field);
+			reply.bulk(value);
+		});
+	}
+
+	private void hashSet(Reply reply, String name, List<byte[]> args) {
+		Map<String, byte[]> hash = hashes.computeIfAbsent(text(args.get(0)), key -> new ConcurrentHashMap<>());
+		long added = 0;
+		for (int i = 1; i + 1 < args.size(); i += 2) {
+			if (hash.put(text(args.get(i)), args.get(i + 1)) == null) {
+				added++;
+			}
+		}
+		if ("HMSET".equals(name)) {
+			reply.simple("OK");
+		} else {
+			reply.integer(added);
+		}
+	}
+
+	private void streamAdd(Reply reply, List<byte[]> args) {
+		if (!"*".equals(text(args.get(1)))) {
+			reply.error("ERR only auto-generated ids are supported");
+			return;
+		}
+		reply.bulk(add(text(args.get(0)), args.subList(2, args.size())));
+	}
+
+	// XREAD [COUNT n] [BLOCK ms] STREAMS key ... id ..., BLOCK 0 은 레코드가 올 때까지 기다림
+	// 기다리는 동안 이 연결의 모니터를 잡고 있지만 스트림을 읽는 연결은 구독을 하지 않으므로 막히는 push 가 없음
+	private void streamRead(Reply reply, List<byte[]> args) {
+		long count = Long.MAX_VALUE;
+		long blockMillis = -1;
+		int streamsAt = -1;
+		for (int i = 0; i < args.size() && streamsAt < 0; i++) {
+			switch (text(args.get(i)).toUpperCase(Locale.ROOT)) {
+				case "COUNT" -> count = Long.parseLong(text(args.get(++i)));
+				case "BLOCK" -> blockMillis = Long.parseLong(text(args.get(++i)));
+				case "STREAMS" -> streamsAt = i + 1;
+				default -> {
+				}
+			}
+		}
+		int keys = (args.size() - streamsAt) / 2;
+		Map<String, List<StreamRecord>> result = new LinkedHashMap<>();
+		synchronized (streams) {
+			long[][] after = new long[keys][];
+			for (int i = 0; i < keys; i++) {
+				String key = text(args.get(streamsAt + i));
+				String id = text(args.get(streamsAt + keys + i));
+				after[i] = "$".equals(id) ? lastId(key) : parseId(id, 0);
+			}
+			long deadline = blockMillis > 0 ? System.currentTimeMillis() + blockMillis : 0;
+			while (true) {
+				for (int i = 0; i < keys; i++) {
+					String key = text(args.get(streamsAt + i));
+					List<StreamRecord> records = recordsAfter(key, after[i], count);
+					if (!records.isEmpty()) {
+						result.put(key, records);
+					}
+				}
+				long remaining = deadline - System.currentTimeMillis();
+				if (!result.isEmpty() || blockMillis < 0 || (blockMillis > 0 && remaining <= 0)) {
+					break;
+				}
+				try {
+					streams.wait(blockMillis == 0 ? 0 : remaining);
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+					break;
+				}
+			}
+		}
+		if (result.isEmpty()) {
+			reply.nullArray();
+			return;
+		}
+		reply.array(result.size());
+		result.forEach((key, records) -> {
+			reply.array(2);
+			reply.bulk(key);
+			reply.array(records.size());
+			records.forEach(reply::record);
+		});
+	}
+
+	// XREVRANGE key end start [COUNT n], 최신 순
+	private void streamRevRange(Reply reply, List<byte[]> args) {
+		long[] end = parseId(text(args.get(1)), Long.MAX_VALUE);
+		long[] start = parseId(text(args.get(2)), 0);
+		long count = args.size() > 4 && "COUNT".equalsIgnoreCase(text(args.get(3)))
+			? Long.parseLong(text(args.get(4)))
+			: Long.MAX_VALUE;
+		List<StreamRecord> selected = new ArrayList<>();
+		synchronized (streams) {
+			List<StreamRecord> records = streams.getOrDefault(text(args.get(0)), List.of());
+			for (int i = records.size() - 1; i >= 0 && selected.size() < count; i--) {
+				StreamRecord record = records.get(i);
+				if (record.compareTo(end) <= 0 && record.compareTo(start) >= 0) {
+					selected.add(record);
+				}
+			}
+		}
+		reply.array(selected.size());
+		selected.forEach(reply::record);
+	}
+
+	private List<StreamRecord> recordsAfter(String key, long[] id, long count) {
+		List<StreamRecord> selected = new ArrayList<>();
+		for (StreamRecord record : streams.getOrDefault(key, List.of())) {
+			if (selected.size() >= count) {
+				break;
+			}
+			if (record.compareTo(id) > 0) {
+				selected.add(record);
+			}
+		}
+		return selected;
+	}
+
+	private long[] lastId(String key) {
+		List<StreamRecord> records = streams.getOrDefault(key, List.of());
+		if (records.isEmpty()) {
+			return new long[] {0, 0};
+		}
+		StreamRecord last = records.get(records.size() - 1);
+		return new long[] {last.millis, last.sequence};
+	}
+
+	// "-", "+", "<ms>" 또는 "<ms>-<seq>", 시퀀스가 없으면 missingSequence 로 채움
+	private static long[] parseId(String id, long missingSequence) {
+		if ("-".equals(id)) {
+			return new long[] {0, 0};
+		}
+		if ("+".equals(id)) {
+			return new long[] {Long.MAX_VALUE, Long.MAX_VALUE};
+		}
+		int dash = id.indexOf('-');
+		if (dash < 0) {
+			return new long[] {Long.parseLong(id), missingSequence};
+		}
+		return new long[] {Long.parseLong(id.substring(0, dash)), Long.parseLong(id.substring(dash + 1))};
+	}
+
+	private static List<byte[]> readCommand(InputStream in) throws IOException {
+		int type = in.read();
+		if (type < 0) {
+			return null;
+		}
+		if (type != '*') {
+			// 인라인 명령 (redis-cli 없이 nc 로 확인할 때)
+			String line = (char)type + readLine(in);
+			List<byte[]> command = new ArrayList<>();
+			for (String part : line.trim().split("\\s+")) {
+				command.add(part.getBytes(StandardCharsets.UTF_8));
+			}
+			return command;
+		}
+		int count = Integer.parseInt(readLine(in));
+		List<byte[]> command = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			if (in.read() != '$') {
+				throw new IOException("Expected a bulk string");
+			}
+			byte[] value = in.readNBytes(Integer.parseInt(readLine(in)));
+			readLine(in);
+			command.add(value);
+		}
+		return command;
+	}
+
+	private static String readLine(InputStream in) throws IOException {
+		StringBuilder line = new StringBuilder();
+		int c;
+		while ((c = in.read()) != '\n') {
+			if (c < 0) {
+				throw new EOFException();
+			}
+			if (c != '\r') {
+				line.append((char)c);
+			}
+		}
+		return line.toString();
+	}
+
+	// Redis glob 중 * 와 ? 만 지원
+	static boolean matches(String pattern, String text) {
+		return matches(pattern, 0, text, 0);
+	}
+
+	private static boolean matches(String pattern, int p, String text, int t) {
+		while (p < pattern.length()) {
+			char c = pattern.charAt(p);
+			if (c == '*') {
+				for (int i = t; i <= text.length(); i++) {
+					if (matches(pattern, p + 1, text, i)) {
+						return true;
+					}
+				}
+				return false;
+			}
+			if (t >= text.length() || (c != '?' && c != text.charAt(t))) {
+				return false;
+			}
+			p++;
+			t++;
+		}
+		return t == text.length();
+	}
+
+	private static String text(byte[] value) {
+		return new String(value, StandardCharsets.UTF_8);
+	}
+
+	private static Thread daemon(String name, Runnable task) {
+		Thread thread = new Thread(task, name);
+		thread.setDaemon(true);
+		return thread;
+	}
+
+	private record PatternSubscription(String pattern, Connection connection) {
+	}
+
+	private record StreamRecord(long millis, long sequence, List<byte[]> fieldValues) {
+		String id() {
+			return millis + "-" + sequence;
+		}
+
+		int compareTo(long[] id) {
+			int compared = Long.compare(millis, id[0]);
+			return compared != 0 ? compared : Long.compare(sequence, id[1]);
+		}
+	}
+
+	private static final class Connection {
+		private final OutputStream out;
+
+		private Connection(OutputStream out) {
+			this.out = out;
+		}
+
+		private synchronized void push(String kind, String pattern, String channel, byte[] message) {
+			try {
+				Reply reply = new Reply(out);
+				reply.array(4);
+				reply.bulk(kind);
+				reply.bulk(pattern);
+				reply.bulk(channel);
+				reply.bulk(message);
+				out.flush();
+			} catch (IllegalStateException | IOException e) {
+				// 끊긴 구독 연결은 serve 쪽에서 정리됨
+			}
+		}
+	}
+
+	private static final class Reply {
+		private final OutputStream out;
+
+		private Reply(OutputStream out) {
+			this.out = out;
+		}
+
+		void simple(String value) {
+			write("+" + value);
+		}
+
+		void simpleOrNull(String value) {
+			if (value == null) {
+				bulk((byte[])null);
+			} else {
+				simple(value);
+			}
+		}
+
+		void error(String message) {
+			write("-" + message);
+		}
+
+		void integer(long value) {
+			write(":" + value);
+		}
+
+		void array(int size) {
+			write("*" + size);
+		}
+
+		void nullArray() {
+			write("*-1");
+		}
+
+		void record(StreamRecord record) {
+			array(2);
+			bulk(record.id());
+			array(record.fieldValues().size());
+			record.fieldValues().forEach(this::bulk);
+		}
+
+		void bulk(String value) {
+			bulk(value == null ? null : value.getBytes(StandardCharsets.UTF_8));
+		}
+
+		void bulk(byte[] value) {
+			if (value == null) {
+				write("$-1");
+				return;
+			}
+			write("$" + value.length);
+			try {
+				out.write(value);
+				out.write(CRLF);
+			} catch (IOException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+
+		private void write(String line) {
+			try {
+				out.write(line.getBytes(StandardCharsets.UTF_8));
+				out.write(CRLF);
+			} catch (IOException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+	}
+}
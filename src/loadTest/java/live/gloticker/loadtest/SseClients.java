@@ -0,0 +1,417 @@
+package live.gloticker.loadtest;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// /v1/market/subscribe 를 여는 시뮬레이션 구독자들, selector 스레드 몇 개가 연결을 나눠 읽음
+// - 필터 구독자: channels=crypto&symbols=BTC,ETH,SOL, 나머지는 전체 채널
+// - 느린 구독자: 100ms 마다 slowBytesPerSecond/10 바이트만 읽어서 서버 쪽 송신 큐가 밀리게 함
+// 이벤트마다 첫 published_at 을 읽어 수신 시각과의 차이를 지연으로 기록
+final class SseClients implements Closeable {
+	private static final long REFILL_NANOS = 100_000_000L;
+	private static final byte[] MARKER =
+		("\"" + MarketPublisher.MARKER_FIELD + "\":\"").getBytes(StandardCharsets.US_ASCII);
+	private static final byte[] EVENT_END = {'\n', '\n'};
+	private static final byte[] PING = "data:ping".getBytes(StandardCharsets.US_ASCII);
+	private static final byte[] HEADER_END = "\r\n\r\n".getBytes(StandardCharsets.US_ASCII);
+	private static final byte[] CHUNKED = "transfer-encoding: chunked".getBytes(StandardCharsets.US_ASCII);
+
+	private final List<Client> clients = new ArrayList<>();
+	private final List<Reader> readers = new ArrayList<>();
+	private final AtomicInteger connected = new AtomicInteger();
+	private final AtomicInteger closedByServer = new AtomicInteger();
+	private final AtomicInteger failed = new AtomicInteger();
+	// 이 시각 이전에 발행된 이벤트는 지연 히스토그램에서 뺌 (워밍업)
+	private volatile long measureFrom;
+
+	SseClients(URI target, int count, int slowPercent, int filterPercent, int slowBytesPerSecond, int selectors)
+		throws IOException {
+		InetSocketAddress address = new InetSocketAddress(target.getHost(), target.getPort());
+		for (int i = 0; i < selectors; i++) {
+			readers.add(new Reader(Selector.open(), Math.max(1, slowBytesPerSecond / 10)));
+		}
+		for (int i = 0; i < count; i++) {
+			// 느린/필터 구독자가 고르게 섞이도록 백분율로 나눔, 둘이 같은 연결에 몰리지 않게 필터는 뒤에서부터 셈
+			boolean slow = spread(i, slowPercent);
+			boolean filtered = spread(count - 1 - i, filterPercent);
+			Client client = new Client(request(target, i, filtered), slow, filtered);
+			clients.add(client);
+			Reader reader = readers.get(i % selectors);
+			client.channel = SocketChannel.open();
+			client.channel.configureBlocking(false);
+			client.channel.connect(address);
+			client.channel.register(reader.selector, SelectionKey.OP_CONNECT, client);
+		}
+		for (int i = 0; i < readers.size(); i++) {
+			Thread thread = new Thread(readers.get(i), "sse-client-" + i);
+			thread.setDaemon(true);
+			readers.get(i).thread = thread;
+			thread.start();
+		}
+	}
+
+	// 모든 연결이 ":connected" 를 받거나 실패할 때까지 기다림
+	int awaitConnected(long timeoutNanos) throws InterruptedException {
+		long deadline = System.nanoTime() + timeoutNanos;
+		while (connected.get() + failed.get() < clients.size() && System.nanoTime() < deadline) {
+			Thread.sleep(100);
+		}
+		return connected.get();
+	}
+
+	void measureFrom(long nanos) {
+		measureFrom = nanos;
+	}
+
+	int connected() {
+		return connected.get();
+	}
+
+	int closedByServer() {
+		return closedByServer.get();
+	}
+
+	int failed() {
+		return failed.get();
+	}
+
+	// 읽기를 멈춘 뒤 결과를 모음
+	Result stop() throws InterruptedException {
+		for (Reader reader : readers) {
+			reader.running = false;
+			reader.selector.wakeup();
+			reader.thread.join();
+		}
+		Result result = new Result();
+		for (Reader reader : readers) {
+			result.fastLatency.add(reader.fastLatency);
+			result.slowLatency.add(reader.slowLatency);
+		}
+		for (Client client : clients) {
+			if (!client.connected) {
+				continue;
+			}
+			if (client.slow) {
+				result.slowEvents += client.events;
+				result.slowClients++;
+			} else if (client.filtered) {
+				result.filteredEvents += client.events;
+				result.filteredClients++;
+			} else {
+				result.allEvents += client.events;
+				result.allClients++;
+			}
+		}
+		return result;
+	}
+
+	@Override
+	public void close() throws IOException {
+		for (Client client : clients) {
+			client.channel.close();
+		}
+		for (Reader reader : readers) {
+			reader.selector.close();
+		}
+	}
+
+	private static boolean spread(int index, int percent) {
+		return index * percent / 100 != (index + 1) * percent / 100;
+	}
+
+	// 연결마다 User-Agent 를 달리해 rate limit 의 브라우저 fingerprint 가 겹치지 않게 함
+	private static ByteBuffer request(URI target, int index, boolean filtered) {
+		String query = filtered
+			? "?channels=crypto&symbols=" + String.join(",", MarketPublisher.FILTER_SYMBOLS)
+			: "";
+		String request = "GET /v1/market/subscribe" + query + " HTTP/1.1\r\n"
+			+ "Host: " + target.getHost() + ":" + target.getPort() + "\r\n"
+			+ "Accept: text/event-stream\r\n"
+			+ "User-Agent: gloticker-e2e/" + index + "\r\n"
+			+ "\r\n";
+		return ByteBuffer.wrap(request.getBytes(StandardCharsets.US_ASCII));
+	}
+
+	static final class Result {
+		final LatencyHistogram fastLatency = new LatencyHistogram();
+		final LatencyHistogram slowLatency = new LatencyHistogram();
+		long allEvents;
+		long filteredEvents;
+		long slowEvents;
+		int allClients;
+		int filteredClients;
+		int slowClients;
+	}
+
+	private final class Reader implements Runnable {
+		private final Selector selector;
+		private final int slowBudget;
+		private final ByteBuffer buffer = ByteBuffer.allocate(64 * 1024);
+		private final LatencyHistogram fastLatency = new LatencyHistogram();
+		private final LatencyHistogram slowLatency = new LatencyHistogram();
+		private final List<SelectionKey> paused = new ArrayList<>();
+		private volatile boolean running = true;
+		private Thread thread;
+		private long nextRefill = System.nanoTime();
+
+		private Reader(Selector selector, int slowBudget) {
+			this.selector = selector;
+			this.slowBudget = slowBudget;
+		}
+
+		@Override
+		public void run() {
+			while (running) {
+				try {
+					selector.select(REFILL_NANOS / 1_000_000);
+				} catch (IOException e) {
+					return;
+				}
+				Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+				while (keys.hasNext()) {
+					SelectionKey key = keys.next();
+					keys.remove();
+					handle(key);
+				}
+				refill();
+			}
+		}
+
+		private void handle(SelectionKey key) {
+			Client client = (Client)key.attachment();
+			try {
+				if (key.isConnectable()) {
+					if (client.channel.finishConnect()) {
+						key.interestOps(SelectionKey.OP_WRITE);
+					}
+				} else if (key.isWritable()) {
+					client.channel.write(client.request);
+					if (!client.request.hasRemaining()) {
+						key.interestOps(SelectionKey.OP_READ);
+					}
+				} else if (key.isReadable()) {
+					read(key, client);
+				}
+			} catch (IOException e) {
+				key.cancel();
+				if (client.connected) {
+					closedByServer.incrementAndGet();
+				} else {
+					failed.incrementAndGet();
+				}
+			}
+		}
+
+		private void read(SelectionKey key, Client client) throws IOException {
+			buffer.clear();
+			if (client.slow && client.connected) {
+				buffer.limit(Math.min(buffer.capacity(), client.budget));
+			}
+			int read = client.channel.read(buffer);
+			if (read < 0) {
+				throw new IOException("closed");
+			}
+			boolean wasConnected = client.connected;
+			client.receive(buffer.array(), read, this);
+			if (!wasConnected && client.connected) {
+				connected.incrementAndGet();
+				client.budget = slowBudget;
+			}
+			if (client.slow && client.connected) {
+				client.budget -= read;
+				if (client.budget <= 0) {
+					key.interestOps(0);
+					paused.add(key);
+				}
+			}
+		}
+
+		private void refill() {
+			long now = System.nanoTime();
+			if (now < nextRefill) {
+				return;
+			}
+			nextRefill = now + REFILL_NANOS;
+			for (SelectionKey key : paused) {
+				if (key.isValid()) {
+					((Client)key.attachment()).budget = slowBudget;
+					key.interestOps(SelectionKey.OP_READ);
+				}
+			}
+			paused.clear();
+		}
+
+		private void record(Client client, long publishedAt) {
+			if (publishedAt < measureFrom) {
+				return;
+			}
+			long latency = System.nanoTime() - publishedAt;
+			(client.slow ? slowLatency : fastLatency).record(latency);
+		}
+	}
+
+	// 응답 헤더 → (chunked 이면 청크를 풀어서) SSE 이벤트 버퍼 → "\n\n" 단위 이벤트
+	private static final class Client {
+		private final ByteBuffer request;
+		private final boolean slow;
+		private final boolean filtered;
+		private SocketChannel channel;
+		private int budget = Integer.MAX_VALUE;
+		private boolean connected;
+		private long events;
+
+		private byte[] head = new byte[0];
+		private boolean headerDone;
+		private boolean chunked;
+		private int chunkRemaining;
+		// 0: 청크 크기 줄, 1: 청크 데이터, 2: 청크 끝 CRLF
+		private int chunkState;
+		private boolean chunkExtension;
+
+		private byte[] pending = new byte[16 * 1024];
+		private int pendingLength;
+
+		private Client(ByteBuffer request, boolean slow, boolean filtered) {
+			this.request = request;
+			this.slow = slow;
+			this.filtered = filtered;
+		}
+
+		private void receive(byte[] data, int length, Reader reader) throws IOException {
+			int offset = 0;
+			if (!headerDone) {
+				offset = readHeader(data, length);
+				if (!headerDone) {
+					return;
+				}
+			}
+			if (!chunked) {
+				append(data, offset, length - offset);
+			} else {
+				decodeChunks(data, offset, length);
+			}
+			parseEvents(reader);
+		}
+
+		private int readHeader(byte[] data, int length) throws IOException {
+			byte[] merged = new byte[head.length + length];
+			System.arraycopy(head, 0, merged, 0, head.length);
+			System.arraycopy(data, 0, merged, head.length, length);
+			int end = indexOf(merged, 0, merged.length, HEADER_END);
+			if (end < 0) {
+				head = merged;
+				return length;
+			}
+			String header = new String(merged, 0, end, StandardCharsets.US_ASCII);
+			if (!header.startsWith("HTTP/1.1 200")) {
+				throw new IOException("Unexpected response: " + header.lines().findFirst().orElse(""));
+			}
+			chunked = indexOf(header.toLowerCase().getBytes(StandardCharsets.US_ASCII), 0, end, CHUNKED) >= 0;
+			headerDone = true;
+			int consumed = end + HEADER_END.length - head.length;
+			head = null;
+			return consumed;
+		}
+
+		private void decodeChunks(byte[] data, int offset, int length) throws IOException {
+			int i = offset;
+			while (i < length) {
+				byte b = data[i];
+				if (chunkState == 0) {
+					i++;
+					if (b == '\n') {
+						if (chunkRemaining == 0) {
+							throw new IOException("closed");
+						}
+						chunkState = 1;
+						chunkExtension = false;
+					} else if (b == ';') {
+						// 청크 확장은 무시
+						chunkExtension = true;
+					} else if (b != '\r' && !chunkExtension) {
+						chunkRemaining = chunkRemaining * 16 + Character.digit(b, 16);
+					}
+				} else if (chunkState == 1) {
+					int count = Math.min(chunkRemaining, length - i);
+					append(data, i, count);
+					i += count;
+					chunkRemaining -= count;
+					if (chunkRemaining == 0) {
+						chunkState = 2;
+					}
+				} else {
+					i++;
+					if (b == '\n') {
+						chunkState = 0;
+					}
+				}
+			}
+		}
+
+		private void append(byte[] data, int offset, int length) {
+			if (pendingLength + length > pending.length) {
+				byte[] grown = new byte[Math.max(pending.length * 2, pendingLength + length)];
+				System.arraycopy(pending, 0, grown, 0, pendingLength);
+				pending = grown;
+			}
+			System.arraycopy(data, offset, pending, pendingLength, length);
+			pendingLength += length;
+		}
+
+		private void parseEvents(Reader reader) {
+			int start = 0;
+			int end;
+			while ((end = indexOf(pending, start, pendingLength, EVENT_END)) >= 0) {
+				if (pending[start] == ':') {
+					// ":connected" 같은 주석
+					connected = true;
+				} else if (!startsWith(pending, start, PING)) {
+					events++;
+					int marker = indexOf(pending, start, end, MARKER);
+					if (marker >= 0) {
+						reader.record(this, parseLong(pending, marker + MARKER.length));
+					}
+				}
+				start = end + 2;
+			}
+			System.arraycopy(pending, start, pending, 0, pendingLength - start);
+			pendingLength -= start;
+		}
+
+		private static boolean startsWith(byte[] data, int offset, byte[] prefix) {
+			return indexOf(data, offset, Math.min(data.length, offset + prefix.length), prefix) == offset;
+		}
+
+		private static long parseLong(byte[] data, int offset) {
+			long value = 0;
+			for (int i = offset; i < data.length && data[i] >= '0' && data[i] <= '9'; i++) {
+				value = value * 10 + (data[i] - '0');
+			}
+			return value;
+		}
+
+		private static int indexOf(byte[] data, int from, int to, byte[] pattern) {
+			outer:
+			for (int i = from; i <= to - pattern.length; i++) {
+				for (int j = 0; j < pattern.length; j++) {
+					if (data[i + j] != pattern[j]) {
+						continue outer;
+					}
+				}
+				return i;
+			}
+			return -1;
+		}
+	}
+}
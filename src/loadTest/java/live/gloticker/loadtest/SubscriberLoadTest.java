@@ -0,0 +1,203 @@
+package live.gloticker.loadtest;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.InetSocketAddress;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+// SSE 구독자 N개를 붙잡아 두고 서버의 힙/구독자 수를 /actuator/prometheus 로 비교
+// 서버의 stream.engine 을 결과에 함께 찍으므로 EMITTER 와 SERVLET_ASYNC 로 각각 띄워 비교함
+// 사용: ./gradlew loadTest -Ptarget=http://localhost:8080 -Pconnections=50000 -PholdSeconds=60 -Pengine=SERVLET_ASYNC
+public final class SubscriberLoadTest {
+	private static final byte[] CONNECTED = ":connected".getBytes(StandardCharsets.US_ASCII);
+	private static final Pattern HEAP_USED =
+		Pattern.compile("^jvm_memory_used_bytes\\{[^}]*area=\"heap\"[^}]*} (\\S+)$");
+	private static final Pattern SUBSCRIBERS = Pattern.compile("^stream_subscribers(?:\\{[^}]*})? (\\S+)$");
+	private static final Pattern ENGINE = Pattern.compile("^stream_engine\\{[^}]*engine=\"([^\"]+)\"[^}]*} \\S+$");
+	private static final String UNKNOWN_ENGINE = "unknown";
+
+	private SubscriberLoadTest() {
+	}
+
+	public static void main(String[] args) throws Exception {
+		URI target = URI.create(args.length > 0 ? args[0] : "http://localhost:8080");
+		int connections = args.length > 1 ? Integer.parseInt(args[1]) : 10_000;
+		int holdSeconds = args.length > 2 ? Integer.parseInt(args[2]) : 30;
+		// 비어 있지 않으면 서버가 그 엔진으로 떠 있는지 확인, 다른 엔진의 결과를 잘못 비교하지 않게 함
+		String expectedEngine = args.length > 3 ? args[3].trim() : "";
+
+		Metrics before = scrape(target);
+		if (!expectedEngine.isEmpty() && !expectedEngine.equalsIgnoreCase(before.engine)) {
+			throw new IllegalStateException(
+				"Server runs stream.engine=" + before.engine + ", expected " + expectedEngine);
+		}
+		System.out.printf("engine: %s%n", before.engine);
+		System.out.printf("before: heap=%.1fMB subscribers=%.0f%n", before.heapMb(), before.subscribers);
+
+		List<SocketChannel> channels = new ArrayList<>(connections);
+		long started = System.nanoTime();
+		int connected = open(target, connections, channels, holdSeconds);
+		long elapsedMillis = (System.nanoTime() - started) / 1_000_000;
+		System.out.printf("connected %d/%d in %dms%n", connected, connections, elapsedMillis);
+
+		Thread.sleep(Duration.ofSeconds(holdSeconds).toMillis());
+		Metrics after = scrape(target);
+		System.out.printf("after: heap=%.1fMB subscribers=%.0f%n", after.heapMb(), after.subscribers);
+		double perConnection = connected > 0 ? (after.heapBytes - before.heapBytes) / connected : 0;
+		if (connected > 0) {
+			System.out.printf("heap per connection: %.0f bytes%n", perConnection);
+		}
+		// 엔진별 실행 결과를 한 줄씩 모아 비교할 수 있게 남김
+		System.out.printf("result: engine=%s connections=%d connected=%d connectMillis=%d heapPerConnection=%.0f%n",
+			before.engine, connections, connected, elapsedMillis, perConnection);
+
+		for (SocketChannel channel : channels) {
+			channel.close();
+		}
+	}
+
+	// 연결마다 User-Agent 를 달리해 rate limit 의 브라우저 fingerprint 가 겹치지 않게 함
+	private static int open(URI target, int connections, List<SocketChannel> channels, int holdSeconds)
+		throws IOException {
+		InetSocketAddress address = new InetSocketAddress(target.getHost(), port(target));
+		int connected = 0;
+		try (Selector selector = Selector.open()) {
+			for (int i = 0; i < connections; i++) {
+				SocketChannel channel = SocketChannel.open();
+				channel.configureBlocking(false);
+				channel.connect(address);
+				channel.register(selector, SelectionKey.OP_CONNECT, new Client(request(target, i)));
+				channels.add(channel);
+			}
+
+			long deadline = System.nanoTime() + Duration.ofSeconds(holdSeconds).toNanos();
+			int pending = connections;
+			while (pending > 0 && System.nanoTime() < deadline) {
+				selector.select(1000);
+				Iterator<SelectionKey> keys = selector.selectedKeys().iterator();
+				while (keys.hasNext()) {
+					SelectionKey key = keys.next();
+					keys.remove();
+					SocketChannel channel = (SocketChannel)key.channel();
+					Client client = (Client)key.attachment();
+					try {
+						if (key.isConnectable() && channel.finishConnect()) {
+							key.interestOps(SelectionKey.OP_WRITE);
+						} else if (key.isWritable()) {
+							channel.write(client.request);
+							if (!client.request.hasRemaining()) {
+								key.interestOps(SelectionKey.OP_READ);
+							}
+						} else if (key.isReadable() && client.read(channel)) {
+							// 구독이 확인된 연결은 더 읽지 않고 붙잡아 둠
+							key.interestOps(0);
+							connected++;
+							pending--;
+						}
+					} catch (IOException e) {
+						key.cancel();
+						pending--;
+					}
+				}
+			}
+			selector.keys().forEach(SelectionKey::cancel);
+		}
+		return connected;
+	}
+
+	private static ByteBuffer request(URI target, int index) {
+		String request = "GET /v1/market/subscribe HTTP/1.1\r\n"
+			+ "Host: " + target.getHost() + ":" + port(target) + "\r\n"
+			+ "Accept: text/event-stream\r\n"
+			+ "User-Agent: gloticker-loadtest/" + index + "\r\n"
+			+ "\r\n";
+		return ByteBuffer.wrap(request.getBytes(StandardCharsets.US_ASCII));
+	}
+
+	private static int port(URI target) {
+		return target.getPort() > 0 ? target.getPort() : 80;
+	}
+
+	private static Metrics scrape(URI target) throws IOException, InterruptedException {
+		HttpClient client = HttpClient.newHttpClient();
+		HttpRequest request = HttpRequest.newBuilder(target.resolve("/actuator/prometheus")).build();
+		double heap = 0;
+		double subscribers = 0;
+		String engine = UNKNOWN_ENGINE;
+		try (InputStream body = client.send(request, HttpResponse.BodyHandlers.ofInputStream()).body()) {
+			for (String line : new String(body.readAllBytes(), StandardCharsets.UTF_8).split("\n")) {
+				Matcher heapMatcher = HEAP_USED.matcher(line);
+				if (heapMatcher.matches()) {
+					heap += Double.parseDouble(heapMatcher.group(1));
+				}
+				Matcher subscribersMatcher = SUBSCRIBERS.matcher(line);
+				if (subscribersMatcher.matches()) {
+					subscribers = Double.parseDouble(subscribersMatcher.group(1));
+				}
+				Matcher engineMatcher = ENGINE.matcher(line);
+				if (engineMatcher.matches()) {
+					engine = engineMatcher.group(1);
+				}
+			}
+		}
+		return new Metrics(heap, subscribers, engine);
+	}
+
+	private record Metrics(double heapBytes, double subscribers, String engine) {
+		double heapMb() {
+			return heapBytes / (1024 * 1024);
+		}
+	}
+
+	private static final class Client {
+		private final ByteBuffer request;
+		private final ByteBuffer buffer = ByteBuffer.allocate(512);
+
+		private Client(ByteBuffer request) {
+			this.request = request;
+		}
+
+		// 응답 헤더 뒤에 ":connected" 주석이 오면 구독 완료
+		private boolean read(SocketChannel channel) throws IOException {
+			if (channel.read(buffer) < 0) {
+				throw new IOException("closed");
+			}
+			byte[] received = new byte[buffer.position()];
+			buffer.duplicate().flip().get(received);
+			if (indexOf(received, CONNECTED) >= 0) {
+				return true;
+			}
+			if (!buffer.hasRemaining()) {
+				buffer.clear();
+			}
+			return false;
+		}
+
+		private static int indexOf(byte[] data, byte[] pattern) {
+			outer:
+			for (int i = 0; i <= data.length - pattern.length; i++) {
+				for (int j = 0; j < pattern.length; j++) {
+					if (data[i + j] != pattern[j]) {
+						continue outer;
+					}
+				}
+				return i;
+			}
+			return -1;
+		}
+	}
+}
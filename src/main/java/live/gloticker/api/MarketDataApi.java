@@ -2,21 +2,32 @@ package live.gloticker.api;
 
 import java.util.List;
 
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ProblemDetail;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.context.request.async.AsyncRequestTimeoutException;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.constraints.Pattern;
 import live.gloticker.dto.AnalysisData;
+import live.gloticker.dto.Candle;
+import live.gloticker.dto.EncodedMarketData;
+import live.gloticker.exception.InvalidRequestException;
 import live.gloticker.service.AnalysisService;
 import live.gloticker.service.MarketService;
 import live.gloticker.service.StreamService;
+import live.gloticker.stream.Subscription;
 import lombok.RequiredArgsConstructor;
 
 @RestController
@@ -26,15 +37,96 @@ public class MarketDataApi {
 	private final StreamService streamService;
 	private final MarketService marketService;
 	private final AnalysisService analysisService;
+	private static final String LAST_EVENT_ID_HEADER = "Last-Event-ID";
+	private static final String GZIP_ENCODING = "gzip";
 
 	@GetMapping(value = "/subscribe", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
-	public SseEmitter streamMarketData() {
-		return streamService.subscribe();
+	public SseEmitter streamMarketData(
+		@RequestParam(value = "channels", required = false) List<String> channels,
+		@RequestParam(value = "symbols", required = false) List<String> symbols,
+		@RequestParam(value = "mode", required = false) String mode,
+		@RequestParam(value = "maxHz", required = false) Double maxHz,
+		@RequestHeader(value = LAST_EVENT_ID_HEADER, required = false) String lastEventId,
+		HttpServletRequest request,
+		HttpServletResponse response) {
+		return streamService.subscribe(
+			Subscription.of(channels, symbols, mode, maxHz), parseEventId(lastEventId), request, response);
 	}
 
+	// 형식이 맞지 않는 Last-Event-ID 는 새 연결로 취급
+	private Long parseEventId(String lastEventId) {
+		if (lastEventId == null || lastEventId.isBlank()) {
+			return null;
+		}
+		try {
+			return Long.parseLong(lastEventId.trim());
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+	// ETag 가 있으면 If-None-Match 일치 시 Spring 이 304 로 응답함
 	@GetMapping("/{type}")
-	public ResponseEntity<List<Object>> getData(@PathVariable("type") @Pattern(regexp = "snapshot|chart") String type) {
-		return ResponseEntity.ok(marketService.getAllData(type));
+	public ResponseEntity<byte[]> getData(
+		@PathVariable("type") @Pattern(regexp = "snapshot|chart") String type,
+		@RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding) {
+		EncodedMarketData data = marketService.getEncodedData(type);
+		ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+			.contentType(MediaType.APPLICATION_JSON)
+			.header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+
+		if (acceptsGzip(acceptEncoding)) {
+			return response.eTag(data.gzipEtag())
+				.header(HttpHeaders.CONTENT_ENCODING, GZIP_ENCODING)
+				.body(data.gzip());
+		}
+		return response.eTag(data.jsonEtag()).body(data.json());
+	}
+
+	// "gzip;q=0" 은 거절, gzip 이 따로 적히지 않았으면 "*" 의 q 를 따름
+	static boolean acceptsGzip(String acceptEncoding) {
+		if (acceptEncoding == null || acceptEncoding.isBlank()) {
+			return false;
+		}
+		double gzip = -1;
+		double wildcard = -1;
+		for (String coding : acceptEncoding.split(",")) {
+			String[] parts = coding.split(";");
+			String name = parts[0].trim().toLowerCase();
+			double quality = quality(parts);
+			if (name.equals(GZIP_ENCODING) || name.equals("x-gzip")) {
+				gzip = Math.max(gzip, quality);
+			} else if (name.equals("*")) {
+				wildcard = quality;
+			}
+		}
+		return gzip >= 0 ? gzip > 0 : wildcard > 0;
+	}
+
+	// q 가 없으면 1, 읽을 수 없는 q 는 0 으로 봄
+	private static double quality(String[] parts) {
+		for (int i = 1; i < parts.length; i++) {
+			String parameter = parts[i].trim();
+			if (parameter.length() > 2 && (parameter.charAt(0) == 'q' || parameter.charAt(0) == 'Q')
+				&& parameter.charAt(1) == '=') {
+				try {
+					return Double.parseDouble(parameter.substring(2).trim());
+				} catch (NumberFormatException e) {
+					return 0;
+				}
+			}
+		}
+		return 1;
+	}
+
+	@GetMapping("/candles")
+	public List<Candle> getCandles(
+		@RequestParam("symbol") String symbol,
+		@RequestParam(value = "interval", required = false) String interval,
+		@RequestParam(value = "from", required = false) Long from,
+		@RequestParam(value = "to", required = false) Long to,
+		@RequestParam(value = "limit", required = false) Integer limit) {
+		return marketService.getCandles(symbol, interval, from, to, limit);
 	}
 
 	@GetMapping("/analysis")
@@ -44,6 +136,13 @@ public class MarketDataApi {
 			.orElse(ResponseEntity.notFound().build());
 	}
 
+	// 잘못된 파라미터만 400, 그 밖의 IllegalArgumentException 은 서버 오류로 남김
+	@ExceptionHandler(InvalidRequestException.class)
+	public ResponseEntity<ProblemDetail> handleInvalidRequestException(InvalidRequestException e) {
+		ProblemDetail problem = ProblemDetail.forStatusAndDetail(HttpStatus.BAD_REQUEST, e.getMessage());
+		return ResponseEntity.badRequest().body(problem);
+	}
+
 	@ExceptionHandler(AsyncRequestTimeoutException.class)
 	public ResponseEntity<Void> handleAsyncRequestTimeoutException() {
 		return ResponseEntity.noContent().build();
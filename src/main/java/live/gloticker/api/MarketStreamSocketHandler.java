@@ -0,0 +1,58 @@
+package live.gloticker.api;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+
+import org.springframework.lang.NonNull;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MultiValueMap;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.BinaryWebSocketHandler;
+import org.springframework.web.util.UriComponentsBuilder;
+import org.springframework.web.util.UriUtils;
+
+import live.gloticker.constant.StreamFormat;
+import live.gloticker.exception.InvalidRequestException;
+import live.gloticker.service.StreamService;
+import live.gloticker.stream.Subscription;
+import live.gloticker.stream.WebSocketConnection;
+import lombok.RequiredArgsConstructor;
+
+// /v1/market/subscribe/ws?channels=crypto&symbols=BTC,ETH : SSE 와 같은 구독 파라미터로 CBOR 바이너리 스트림 제공
+@Component
+@RequiredArgsConstructor
+public class MarketStreamSocketHandler extends BinaryWebSocketHandler {
+	private final StreamService streamService;
+
+	@Override
+	public void afterConnectionEstablished(@NonNull WebSocketSession session) throws Exception {
+		Subscription subscription;
+		try {
+			MultiValueMap<String, String> params =
+				UriComponentsBuilder.fromUri(session.getUri()).build().getQueryParams();
+			subscription = Subscription.of(split(params.get("channels")), split(params.get("symbols")), null)
+				.withFormat(StreamFormat.CBOR);
+		} catch (InvalidRequestException e) {
+			session.close(CloseStatus.BAD_DATA.withReason(e.getMessage()));
+			return;
+		}
+		streamService.subscribe(session.getId(), new WebSocketConnection(session), subscription);
+	}
+
+	@Override
+	public void afterConnectionClosed(@NonNull WebSocketSession session, @NonNull CloseStatus status) {
+		streamService.unsubscribe(session.getId());
+	}
+
+	private static List<String> split(List<String> values) {
+		if (values == null) {
+			return null;
+		}
+		return values.stream()
+			.flatMap(value -> Arrays.stream(value.split(",")))
+			.map(value -> UriUtils.decode(value, StandardCharsets.UTF_8))
+			.toList();
+	}
+}
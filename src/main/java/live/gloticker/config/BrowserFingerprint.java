@@ -3,75 +3,154 @@ package live.gloticker.config;
 import java.nio.charset.StandardCharsets;
 import java.security.MessageDigest;
 import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
 import java.util.Base64;
 import java.util.List;
-import java.util.regex.Pattern;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
-import org.springframework.util.StringUtils;
 
 import jakarta.servlet.http.HttpServletRequest;
+import live.gloticker.constant.FingerprintHash;
 import live.gloticker.constant.FingerprintHeader;
-import lombok.RequiredArgsConstructor;
-import lombok.extern.slf4j.Slf4j;
 
-@Slf4j
+// 요청마다 호출되므로 스트림/정규식/중간 문자열 없이 스레드별 버퍼에 바로 쓰고 해시함
+// 입력 바이트는 "필수 헤더|IP|보안 헤더" 로 이전 구현과 같아서 SHA256 결과도 동일
 @Component
-@RequiredArgsConstructor
 public class BrowserFingerprint {
 
 	private static final String UNKNOWN_VALUE = "unknown";
 	private static final int MAX_HEADER_LENGTH = 1000;
-	private static final Pattern VALID_HEADER_PATTERN = Pattern.compile("[a-zA-Z0-9\\-_.,;: /\\[\\]()]+");
+	private static final String LOOPBACK_IPV6 = "0:0:0:0:0:0:0:1";
+	private static final String LOOPBACK_IPV4 = "127.0.0.1";
+	private static final byte SEPARATOR = '|';
+	// [a-zA-Z0-9\-_.,;: /\[\]()] 허용 문자표
+	private static final boolean[] VALID_CHARS = validChars("-_.,;: /[]()");
+	private static final Base64.Encoder BASE64 = Base64.getEncoder();
+	private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(BrowserFingerprint::sha256);
+	private static final ThreadLocal<Buffer> BUFFERS = ThreadLocal.withInitial(Buffer::new);
 
-	public String generateFingerprint(HttpServletRequest request) {
-		String essentialPart = appendHeaders(request, FingerprintHeader.getEssentialHeaders());
-		String ip = getClientIP(request);
-		String securityPart = appendHeaders(request, FingerprintHeader.getSecurityHeaders());
+	private final FingerprintHash hash;
 
-		String fingerprint = String.join("|", essentialPart, ip, securityPart);
-		return hashFingerprint(fingerprint);
+	public BrowserFingerprint(@Value("${rate-limit.fingerprint.hash:SHA256}") FingerprintHash hash) {
+		this.hash = hash;
 	}
 
-	private String getClientIP(HttpServletRequest request) {
-		String ip = FingerprintHeader.getIpHeaders().stream()
-			.map(header -> getHeaderValue(request, header))
-			.filter(StringUtils::hasText)
-			.filter(value -> !UNKNOWN_VALUE.equalsIgnoreCase(value))
-			.filter(this::isValidHeader)
-			.findFirst()
-			.orElseGet(request::getRemoteAddr);
+	public String generateFingerprint(HttpServletRequest request) {
+		Buffer buffer = BUFFERS.get();
+		buffer.length = 0;
+		appendHeaders(buffer, request, FingerprintHeader.getEssentialHeaders());
+		buffer.append(SEPARATOR);
+		appendClientIP(buffer, request);
+		buffer.append(SEPARATOR);
+		appendHeaders(buffer, request, FingerprintHeader.getSecurityHeaders());
 
-		return "0:0:0:0:0:0:0:1".equals(ip) ? "127.0.0.1" : ip;
+		if (hash == FingerprintHash.MURMUR3) {
+			return BASE64.encodeToString(Murmur3.hash128(buffer.bytes, buffer.length));
+		}
+		MessageDigest digest = SHA256.get();
+		digest.update(buffer.bytes, 0, buffer.length);
+		return BASE64.encodeToString(digest.digest());
 	}
 
-	private String appendHeaders(HttpServletRequest request, List<String> headers) {
-		return headers.stream()
-			.map(header -> getHeaderValue(request, header))
-			.filter(this::isValidHeader)
-			.collect(java.util.stream.Collectors.joining("|"));
+	private void appendClientIP(Buffer buffer, HttpServletRequest request) {
+		String ip = null;
+		List<String> headers = FingerprintHeader.getIpHeaders();
+		for (int i = 0; i < headers.size() && ip == null; i++) {
+			String value = request.getHeader(headers.get(i));
+			if (isValidHeader(value)) {
+				ip = value;
+			}
+		}
+		if (ip == null) {
+			ip = request.getRemoteAddr();
+		}
+		buffer.append(LOOPBACK_IPV6.equals(ip) ? LOOPBACK_IPV4 : String.valueOf(ip));
 	}
 
-	private String getHeaderValue(HttpServletRequest request, String headerName) {
-		String value = request.getHeader(headerName);
-		return StringUtils.hasText(value) ? value : UNKNOWN_VALUE;
+	private void appendHeaders(Buffer buffer, HttpServletRequest request, List<String> headers) {
+		boolean first = true;
+		for (int i = 0; i < headers.size(); i++) {
+			String value = request.getHeader(headers.get(i));
+			if (!isValidHeader(value)) {
+				continue;
+			}
+			if (!first) {
+				buffer.append(SEPARATOR);
+			}
+			buffer.append(value);
+			first = false;
+		}
 	}
 
 	private boolean isValidHeader(String value) {
-		return StringUtils.hasText(value)
-			&& !UNKNOWN_VALUE.equalsIgnoreCase(value)
-			&& value.length() < MAX_HEADER_LENGTH
-			&& VALID_HEADER_PATTERN.matcher(value).matches();
+		if (value == null || value.isEmpty() || value.length() >= MAX_HEADER_LENGTH
+			|| UNKNOWN_VALUE.equalsIgnoreCase(value)) {
+			return false;
+		}
+		boolean hasText = false;
+		for (int i = 0; i < value.length(); i++) {
+			char c = value.charAt(i);
+			if (c >= VALID_CHARS.length || !VALID_CHARS[c]) {
+				return false;
+			}
+			hasText |= c != ' ';
+		}
+		return hasText;
+	}
+
+	private static boolean[] validChars(String symbols) {
+		boolean[] valid = new boolean[128];
+		for (char c = '0'; c <= '9'; c++) {
+			valid[c] = true;
+		}
+		for (char c = 'a'; c <= 'z'; c++) {
+			valid[c] = true;
+			valid[Character.toUpperCase(c)] = true;
+		}
+		symbols.chars().forEach(c -> valid[c] = true);
+		return valid;
 	}
 
-	private String hashFingerprint(String fingerprint) {
+	private static MessageDigest sha256() {
 		try {
-			MessageDigest digest = MessageDigest.getInstance("SHA-256");
-			byte[] hash = digest.digest(fingerprint.getBytes(StandardCharsets.UTF_8));
-			return Base64.getEncoder().encodeToString(hash);
+			return MessageDigest.getInstance("SHA-256");
 		} catch (NoSuchAlgorithmException e) {
-			log.error("Failed to hash fingerprint", e);
-			return fingerprint;
+			throw new IllegalStateException("SHA-256 is not available", e);
+		}
+	}
+
+	private static final class Buffer {
+		private byte[] bytes = new byte[256];
+		private int length;
+
+		private void append(byte b) {
+			ensureCapacity(1);
+			bytes[length++] = b;
+		}
+
+		// 검증을 통과한 헤더는 ASCII 만 담고 있으므로 문자를 그대로 바이트로 씀
+		private void append(String value) {
+			ensureCapacity(value.length());
+			int start = length;
+			for (int i = 0; i < value.length(); i++) {
+				char c = value.charAt(i);
+				if (c >= 0x80) {
+					length = start;
+					byte[] encoded = value.getBytes(StandardCharsets.UTF_8);
+					ensureCapacity(encoded.length);
+					System.arraycopy(encoded, 0, bytes, length, encoded.length);
+					length += encoded.length;
+					return;
+				}
+				bytes[length++] = (byte)c;
+			}
+		}
+
+		private void ensureCapacity(int additional) {
+			if (length + additional > bytes.length) {
+				bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + additional));
+			}
 		}
 	}
 }
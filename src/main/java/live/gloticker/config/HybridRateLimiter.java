@@ -0,0 +1,147 @@
+package live.gloticker.config;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import io.github.bucket4j.Bucket;
+import io.github.bucket4j.BucketConfiguration;
+import io.github.bucket4j.ConsumptionProbe;
+import io.github.bucket4j.distributed.proxy.AsyncProxyManager;
+import io.github.bucket4j.distributed.proxy.ProxyManager;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.slf4j.Slf4j;
+
+// 로컬 토큰 버킷이 먼저 판단하고, 소비량은 주기적으로 모아 Redis 분산 버킷에 비동기로 반영
+// 동기화되지 않은 소비량이 max-unsynced-tokens 에 닿으면 그 요청만 Redis 를 직접 거침
+// 따라서 클러스터 전체 초과 허용량은 fingerprint 당 (노드 수 x max-unsynced-tokens)
+@Slf4j
+@Component
+public class HybridRateLimiter {
+	static final int CAPACITY = 6;
+	private static final Duration WINDOW = Duration.ofSeconds(10);
+	private static final BucketConfiguration CONFIGURATION = BucketConfiguration.builder()
+		.addLimit(limit -> limit.capacity(CAPACITY).refillIntervally(CAPACITY, WINDOW))
+		.build();
+
+	private final ProxyManager<String> proxyManager;
+	private final AsyncProxyManager<String> asyncProxyManager;
+	private final Cache<String, LocalBucket> localBuckets;
+	private final Set<String> unsynced = ConcurrentHashMap.newKeySet();
+	private final long maxUnsyncedTokens;
+	private final Timer inlineCalls;
+	private final Timer syncCalls;
+
+	public HybridRateLimiter(
+		ProxyManager<String> bucketProxyManager,
+		MeterRegistry meterRegistry,
+		@Value("${rate-limit.local.max-clients:100000}") long maxClients,
+		@Value("${rate-limit.local.idle-timeout:10m}") Duration idleTimeout,
+		@Value("${rate-limit.local.max-unsynced-tokens:2}") long maxUnsyncedTokens) {
+		this.proxyManager = bucketProxyManager;
+		this.asyncProxyManager = bucketProxyManager.asAsync();
+		this.maxUnsyncedTokens = maxUnsyncedTokens;
+		this.localBuckets = Caffeine.newBuilder()
+			.maximumSize(maxClients)
+			.expireAfterAccess(idleTimeout)
+			.build();
+		this.inlineCalls = redisCallTimer(meterRegistry, "rate_limit_inline");
+		this.syncCalls = redisCallTimer(meterRegistry, "rate_limit_sync");
+	}
+
+	// 요청 스레드에서 기다린 Redis 왕복(inline)과 백그라운드 동기화(sync)를 나눠 기록
+	private static Timer redisCallTimer(MeterRegistry meterRegistry, String call) {
+		return Timer.builder("redis.call.duration")
+			.tag("call", call)
+			.publishPercentileHistogram()
+			.minimumExpectedValue(Duration.ofNanos(100_000))
+			.maximumExpectedValue(Duration.ofSeconds(5))
+			.register(meterRegistry);
+	}
+
+	public ConsumptionProbe tryConsume(String clientId) {
+		LocalBucket local = localBuckets.get(clientId, key -> new LocalBucket());
+		long blockedNanos = local.blockedNanos();
+		if (blockedNanos > 0) {
+			return ConsumptionProbe.rejected(0, blockedNanos, blockedNanos);
+		}
+
+		ConsumptionProbe probe = local.bucket.tryConsumeAndReturnRemaining(1);
+		if (!probe.isConsumed()) {
+			return probe;
+		}
+		if (local.unsyncedTokens.incrementAndGet() <= maxUnsyncedTokens) {
+			unsynced.add(clientId);
+			return probe;
+		}
+
+		// 허용된 초과량을 다 쓴 경우만 기존처럼 Redis 왕복으로 확정
+		long startedAt = System.nanoTime();
+		long penaltyNanos = proxyManager.builder()
+			.build(clientId, () -> CONFIGURATION)
+			.consumeIgnoringRateLimits(local.unsyncedTokens.getAndSet(0));
+		inlineCalls.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+		if (penaltyNanos > 0) {
+			local.blockFor(penaltyNanos);
+			return ConsumptionProbe.rejected(0, penaltyNanos, penaltyNanos);
+		}
+		return probe;
+	}
+
+	// 쌓인 소비량을 fingerprint 당 명령 하나로 보내고, Lettuce 가 한 연결에서 파이프라인으로 묶어 전송
+	@Scheduled(fixedDelayString = "${rate-limit.local.sync-interval:100ms}")
+	public void sync() {
+		for (String clientId : unsynced) {
+			unsynced.remove(clientId);
+			LocalBucket local = localBuckets.getIfPresent(clientId);
+			if (local == null) {
+				continue;
+			}
+			long tokens = local.unsyncedTokens.getAndSet(0);
+			if (tokens == 0) {
+				continue;
+			}
+			long startedAt = System.nanoTime();
+			asyncProxyManager.builder()
+				.build(clientId, () -> CompletableFuture.completedFuture(CONFIGURATION))
+				.consumeIgnoringRateLimits(tokens)
+				.whenComplete((penaltyNanos, error) -> {
+					syncCalls.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+					if (error != null) {
+						log.warn("Failed to sync rate limit for {}: {}", clientId, error.getMessage());
+					} else if (penaltyNanos > 0) {
+						// 다른 노드에서 이미 한도를 소진한 클라이언트는 분산 버킷이 다시 찰 때까지 로컬에서도 거절
+						local.blockFor(penaltyNanos);
+					}
+				});
+		}
+	}
+
+	private static final class LocalBucket {
+		private final Bucket bucket = Bucket.builder()
+			.addLimit(limit -> limit.capacity(CAPACITY).refillIntervally(CAPACITY, WINDOW))
+			.build();
+		private final AtomicLong unsyncedTokens = new AtomicLong();
+		private volatile long blockedUntil;
+
+		private long blockedNanos() {
+			long until = blockedUntil;
+			return until == 0 ? 0 : Math.max(0, until - System.nanoTime());
+		}
+
+		private void blockFor(long nanos) {
+			blockedUntil = System.nanoTime() + nanos;
+		}
+	}
+}
@@ -0,0 +1,87 @@
+package live.gloticker.config;
+
+// MurmurHash3 x64 128-bit (seed 0), 결과는 h1, h2 순서의 little-endian 16바이트
+final class Murmur3 {
+	private static final long C1 = 0x87c37b91114253d5L;
+	private static final long C2 = 0x4cf5ad432745937fL;
+
+	private Murmur3() {
+	}
+
+	static byte[] hash128(byte[] data, int length) {
+		long h1 = 0;
+		long h2 = 0;
+		int blocks = length >>> 4;
+		for (int i = 0; i < blocks; i++) {
+			int offset = i << 4;
+			h1 ^= mixK1(getLong(data, offset));
+			h1 = Long.rotateLeft(h1, 27) + h2;
+			h1 = h1 * 5 + 0x52dce729;
+			h2 ^= mixK2(getLong(data, offset + 8));
+			h2 = Long.rotateLeft(h2, 31) + h1;
+			h2 = h2 * 5 + 0x38495ab5;
+		}
+
+		int tail = blocks << 4;
+		int remaining = length & 15;
+		long k1 = 0;
+		long k2 = 0;
+		for (int i = remaining - 1; i >= 8; i--) {
+			k2 ^= (data[tail + i] & 0xffL) << ((i - 8) << 3);
+		}
+		for (int i = Math.min(remaining, 8) - 1; i >= 0; i--) {
+			k1 ^= (data[tail + i] & 0xffL) << (i << 3);
+		}
+		if (remaining > 8) {
+			h2 ^= mixK2(k2);
+		}
+		if (remaining > 0) {
+			h1 ^= mixK1(k1);
+		}
+
+		h1 ^= length;
+		h2 ^= length;
+		h1 += h2;
+		h2 += h1;
+		h1 = fmix(h1);
+		h2 = fmix(h2);
+		h1 += h2;
+		h2 += h1;
+
+		byte[] hash = new byte[16];
+		putLong(hash, 0, h1);
+		putLong(hash, 8, h2);
+		return hash;
+	}
+
+	private static long mixK1(long k1) {
+		return Long.rotateLeft(k1 * C1, 31) * C2;
+	}
+
+	private static long mixK2(long k2) {
+		return Long.rotateLeft(k2 * C2, 33) * C1;
+	}
+
+	private static long fmix(long k) {
+		k ^= k >>> 33;
+		k *= 0xff51afd7ed558ccdL;
+		k ^= k >>> 33;
+		k *= 0xc4ceb9fe1a85ec53L;
+		k ^= k >>> 33;
+		return k;
+	}
+
+	private static long getLong(byte[] data, int offset) {
+		long value = 0;
+		for (int i = 7; i >= 0; i--) {
+			value = (value << 8) | (data[offset + i] & 0xffL);
+		}
+		return value;
+	}
+
+	private static void putLong(byte[] target, int offset, long value) {
+		for (int i = 0; i < 8; i++) {
+			target[offset + i] = (byte)(value >>> (i << 3));
+		}
+	}
+}
@@ -1,32 +1,41 @@
 package live.gloticker.config;
 
-import java.time.Duration;
-
 import org.springframework.http.HttpStatus;
 import org.springframework.lang.NonNull;
 import org.springframework.stereotype.Component;
 import org.springframework.web.servlet.HandlerInterceptor;
 
-import io.github.bucket4j.Bucket;
-import io.github.bucket4j.BucketConfiguration;
 import io.github.bucket4j.ConsumptionProbe;
-import io.github.bucket4j.distributed.proxy.ProxyManager;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
-import lombok.RequiredArgsConstructor;
 
 @Component
-@RequiredArgsConstructor
 public class RateLimitInterceptor implements HandlerInterceptor {
-	private static final int DEFAULT_CAPACITY = 6;
-	private static final Duration WINDOW_DURATION = Duration.ofSeconds(10);
 	private static final String RATE_LIMIT_REMAINING_HEADER = "X-RateLimit-Remaining";
 	private static final String RETRY_AFTER_HEADER = "Retry-After";
 	private static final String X_RATE_LIMIT_LIMIT = "X-RateLimit-Limit";
 	private static final String X_RATE_LIMIT_RESET = "X-RateLimit-Reset";
 
-	private final ProxyManager<String> bucketProxyManager;
+	private final HybridRateLimiter rateLimiter;
 	private final BrowserFingerprint browserFingerprint;
+	private final Counter allowedRequests;
+	private final Counter deniedRequests;
+
+	public RateLimitInterceptor(
+		HybridRateLimiter rateLimiter,
+		BrowserFingerprint browserFingerprint,
+		MeterRegistry meterRegistry) {
+		this.rateLimiter = rateLimiter;
+		this.browserFingerprint = browserFingerprint;
+		this.allowedRequests = Counter.builder("rate.limit.requests")
+			.tag("result", "allowed")
+			.register(meterRegistry);
+		this.deniedRequests = Counter.builder("rate.limit.requests")
+			.tag("result", "denied")
+			.register(meterRegistry);
+	}
 
 	@Override
 	public boolean preHandle(
@@ -35,15 +44,13 @@ public class RateLimitInterceptor implements HandlerInterceptor {
 		@NonNull Object handler) {
 
 		String clientId = browserFingerprint.generateFingerprint(request);
-		Bucket bucket = bucketProxyManager.builder()
-			.build(clientId, this::getDefaultBucketConfiguration);
-
-		ConsumptionProbe probe = bucket.tryConsumeAndReturnRemaining(1);
+		ConsumptionProbe probe = rateLimiter.tryConsume(clientId);
 
 		// 공통 헤더 설정
-		response.setHeader(X_RATE_LIMIT_LIMIT, String.valueOf(DEFAULT_CAPACITY));
+		response.setHeader(X_RATE_LIMIT_LIMIT, String.valueOf(HybridRateLimiter.CAPACITY));
 
 		if (!probe.isConsumed()) {
+			deniedRequests.increment();
 			response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
 			long secondsToWait = probe.getNanosToWaitForRefill() / 1_000_000_000;
 
@@ -53,18 +60,11 @@ public class RateLimitInterceptor implements HandlerInterceptor {
 			return false;
 		}
 
+		allowedRequests.increment();
 		response.setHeader(RATE_LIMIT_REMAINING_HEADER, String.valueOf(probe.getRemainingTokens()));
 		long nextRefillInSeconds = probe.getNanosToWaitForRefill() / 1_000_000_000;
 		response.setHeader(X_RATE_LIMIT_RESET, String.valueOf(System.currentTimeMillis() / 1000 + nextRefillInSeconds));
 
 		return true;
 	}
-
-	private BucketConfiguration getDefaultBucketConfiguration() {
-		return BucketConfiguration.builder()
-			.addLimit(limitBuilder -> limitBuilder
-				.capacity(DEFAULT_CAPACITY)
-				.refillIntervally(DEFAULT_CAPACITY, WINDOW_DURATION))
-			.build();
-	}
 }
@@ -4,6 +4,7 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.SyncTaskExecutor;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 
@@ -20,6 +21,8 @@ public class RedisConfig {
 		RedisMessageListenerContainer container = new RedisMessageListenerContainer();
 		container.setConnectionFactory(connectionFactory);
 		container.setErrorHandler(e -> log.error("Redis message listener error: ", e));
+		// 메시지마다 스레드를 만들지 않고 구독 스레드에서 바로 IngestDispatcher 로 넘김
+		container.setTaskExecutor(new SyncTaskExecutor());
 		return container;
 	}
 
@@ -0,0 +1,60 @@
+package live.gloticker.config;
+
+import java.util.Map;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.http.server.ServletServerHttpResponse;
+import org.springframework.lang.NonNull;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+
+import live.gloticker.api.MarketStreamSocketHandler;
+import lombok.RequiredArgsConstructor;
+
+@Configuration
+@EnableWebSocket
+@RequiredArgsConstructor
+public class WebSocketConfig implements WebSocketConfigurer {
+
+	private final MarketStreamSocketHandler marketStreamSocketHandler;
+	private final RateLimitInterceptor rateLimitInterceptor;
+
+	// /v1/market/{type} 과 겹치지 않도록 두 단계 경로를 씀
+	@Override
+	public void registerWebSocketHandlers(WebSocketHandlerRegistry registry) {
+		registry.addHandler(marketStreamSocketHandler, "/v1/market/subscribe/ws")
+			.addInterceptors(new RateLimitHandshakeInterceptor())
+			.setAllowedOriginPatterns("*");
+	}
+
+	// WebSocket 핸드셰이크는 MVC 인터셉터를 거치지 않으므로 같은 rate limit 을 직접 적용
+	private class RateLimitHandshakeInterceptor implements HandshakeInterceptor {
+		@Override
+		public boolean beforeHandshake(
+			@NonNull ServerHttpRequest request,
+			@NonNull ServerHttpResponse response,
+			@NonNull WebSocketHandler handler,
+			@NonNull Map<String, Object> attributes) {
+			if (request instanceof ServletServerHttpRequest servletRequest
+				&& response instanceof ServletServerHttpResponse servletResponse) {
+				return rateLimitInterceptor.preHandle(
+					servletRequest.getServletRequest(), servletResponse.getServletResponse(), handler);
+			}
+			return true;
+		}
+
+		@Override
+		public void afterHandshake(
+			@NonNull ServerHttpRequest request,
+			@NonNull ServerHttpResponse response,
+			@NonNull WebSocketHandler handler,
+			Exception exception) {
+		}
+	}
+}
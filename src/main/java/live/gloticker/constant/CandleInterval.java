@@ -0,0 +1,33 @@
+package live.gloticker.constant;
+
+import java.util.Arrays;
+
+import live.gloticker.exception.InvalidRequestException;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+@Getter
+@RequiredArgsConstructor
+public enum CandleInterval {
+	ONE_MINUTE("1m", 60_000L),
+	FIVE_MINUTES("5m", 300_000L),
+	ONE_HOUR("1h", 3_600_000L);
+
+	private final String alias;
+	private final long millis;
+
+	// epoch millis 를 이 간격의 시작 시각으로 내림
+	public long openTimeOf(long epochMillis) {
+		return epochMillis - Math.floorMod(epochMillis, millis);
+	}
+
+	public static CandleInterval from(String interval) {
+		if (interval == null || interval.isBlank()) {
+			return ONE_MINUTE;
+		}
+		return Arrays.stream(values())
+			.filter(value -> value.alias.equalsIgnoreCase(interval.trim()))
+			.findFirst()
+			.orElseThrow(() -> new InvalidRequestException("Unknown candle interval: " + interval));
+	}
+}
@@ -0,0 +1,7 @@
+package live.gloticker.constant;
+
+// rate limit 키로 쓰는 fingerprint 해시, 바꾸면 기존 버킷 키와 달라짐
+public enum FingerprintHash {
+	SHA256,
+	MURMUR3
+}
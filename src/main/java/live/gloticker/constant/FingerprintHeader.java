@@ -2,7 +2,6 @@ package live.gloticker.constant;
 
 import java.util.Arrays;
 import java.util.List;
-import java.util.stream.Collectors;
 
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
@@ -32,24 +31,27 @@ public enum FingerprintHeader {
 		SECURITY
 	}
 
-	public static List<String> getSecurityHeaders() {
+	// 요청마다 호출되므로 카테고리별 목록은 한 번만 만들어 둠
+	private static final List<String> ESSENTIAL_HEADERS = headersOf(HeaderCategory.ESSENTIAL);
+	private static final List<String> IP_HEADERS = headersOf(HeaderCategory.IP);
+	private static final List<String> SECURITY_HEADERS = headersOf(HeaderCategory.SECURITY);
+
+	private static List<String> headersOf(HeaderCategory category) {
 		return Arrays.stream(values())
-			.filter(header -> header.getCategory() == HeaderCategory.SECURITY)
+			.filter(header -> header.getCategory() == category)
 			.map(FingerprintHeader::getHeaderName)
-			.collect(Collectors.toList());
+			.toList();
+	}
+
+	public static List<String> getSecurityHeaders() {
+		return SECURITY_HEADERS;
 	}
 
 	public static List<String> getIpHeaders() {
-		return Arrays.stream(values())
-			.filter(header -> header.getCategory() == HeaderCategory.IP)
-			.map(FingerprintHeader::getHeaderName)
-			.collect(Collectors.toList());
+		return IP_HEADERS;
 	}
 
 	public static List<String> getEssentialHeaders() {
-		return Arrays.stream(values())
-			.filter(header -> header.getCategory() == HeaderCategory.ESSENTIAL)
-			.map(FingerprintHeader::getHeaderName)
-			.collect(Collectors.toList());
+		return ESSENTIAL_HEADERS;
 	}
 }
@@ -0,0 +1,10 @@
+package live.gloticker.constant;
+
+public enum IngestOverflowPolicy {
+	// 큐에 자리가 날 때까지 Redis Streams 읽기 스레드를 잡아 둠, 버리지 않음
+	// STREAMS 는 항상 이 정책, 버린 레코드 뒤의 offset 이 저장되면 그 레코드를 다시 읽을 수 없음
+	BLOCK,
+	// 가장 오래 기다린 메시지를 버리고 새 메시지를 넣음
+	// PUBSUB 은 항상 이 정책, Lettuce 이벤트 루프 스레드를 막을 수 없음
+	DROP_OLDEST
+}
@@ -0,0 +1,8 @@
+package live.gloticker.constant;
+
+public enum IngestSource {
+	// *.price.stream 패턴 구독, 끊긴 동안의 메시지는 유실
+	PUBSUB,
+	// 채널 이름과 같은 Redis Stream 을 XREAD 로 읽고, 처리한 id 를 저장해 재시작/재연결 후 이어서 읽음
+	STREAMS
+}
@@ -1,8 +1,15 @@
 package live.gloticker.constant;
 
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
 import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
 import java.util.function.BiPredicate;
 import java.util.function.Function;
+import java.util.stream.Collectors;
 
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
@@ -10,18 +17,72 @@ import lombok.RequiredArgsConstructor;
 @Getter
 @RequiredArgsConstructor
 public enum MarketDataType {
-	INDEX((symbol, data) -> symbol.startsWith("^"), data -> data.get("current_value"), 1),
+	INDEX((symbol, data) -> symbol.startsWith("^"), data -> data.get("current_value"), 1,
+		schema("current_value", "change", "change_percent")),
 	FEAR_AND_GREED((symbol, data) -> "Fear&Greed".equals(symbol), data -> data.get("score"),
-		2),
+		2, schema("score")),
 	STOCK((symbol, data) -> data.containsKey("market_state"),
 		data -> data.containsKey("otc_price") ? data.get("otc_price") : data.get("current_price"),
-		3),
+		3, schema("current_price", "change", "change_percent", "otc_price")),
 	CRYPTO((symbol, data) -> !symbol.equals("BTC.D") && data.containsKey("current_price") && !data.containsKey(
-		"market_state"), data -> data.get("current_price"), 4),
-	DOMINANCE((symbol, data) -> "BTC.D".equals(symbol), data -> data.get("value"), 5),
-	FOREX((symbol, data) -> data.containsKey("rate"), data -> data.get("rate"), 6);
+		"market_state"), data -> data.get("current_price"), 4,
+		schema("current_price", "change_24h", "change_percent_24h")),
+	DOMINANCE((symbol, data) -> "BTC.D".equals(symbol), data -> data.get("value"), 5, schema("value")),
+	FOREX((symbol, data) -> data.containsKey("rate"), data -> data.get("rate"), 6,
+		schema("rate", "change", "change_percent"));
 
 	private final BiPredicate<String, Map<String, String>> matcher;
 	private final Function<Map<String, String>, String> valueExtractor;
 	private final int order;
+	// QuoteField 순서대로 값을 읽을 원본 필드명, 없는 값은 null
+	private final List<String> quoteFields;
+
+	public String quoteField(QuoteField field) {
+		return quoteFields.get(field.ordinal());
+	}
+
+	// matcher 가 유무를 보는 필드, 심볼이 같고 이 필드들의 유무가 같으면 분류 결과도 같음
+	private static final List<String> SHAPE_FIELDS = List.of("current_price", "market_state", "rate");
+
+	private static final List<MarketDataType> IN_ORDER = Arrays.stream(values())
+		.sorted(Comparator.comparingInt(MarketDataType::getOrder))
+		.toList();
+
+	// 어느 타입의 스키마에든 있는 원본 필드명, 숫자로 읽어도 되는 가격 필드
+	private static final Set<String> QUOTE_FIELD_NAMES = Arrays.stream(values())
+		.flatMap(type -> type.quoteFields.stream())
+		.filter(Objects::nonNull)
+		.collect(Collectors.toUnmodifiableSet());
+
+	public static List<MarketDataType> inOrder() {
+		return IN_ORDER;
+	}
+
+	public static Set<String> quoteFieldNames() {
+		return QUOTE_FIELD_NAMES;
+	}
+
+	// 심볼이 처음 맞는 타입 (order 순), 없으면 null
+	public static MarketDataType match(String symbol, Map<String, String> data) {
+		for (MarketDataType type : IN_ORDER) {
+			if (type.matcher.test(symbol, data)) {
+				return type;
+			}
+		}
+		return null;
+	}
+
+	public static int shapeOf(Map<String, String> data) {
+		int shape = 0;
+		for (int i = 0; i < SHAPE_FIELDS.size(); i++) {
+			if (data.containsKey(SHAPE_FIELDS.get(i))) {
+				shape |= 1 << i;
+			}
+		}
+		return shape;
+	}
+
+	private static List<String> schema(String... fields) {
+		return Collections.unmodifiableList(Arrays.asList(Arrays.copyOf(fields, QuoteField.values().length)));
+	}
 }
@@ -0,0 +1,10 @@
+package live.gloticker.constant;
+
+public enum OverflowPolicy {
+	// 가장 오래된 메시지를 버리고 새 메시지를 넣음
+	DROP_OLDEST,
+	// 큐가 가득 찬 클라이언트는 연결을 끊음
+	DISCONNECT,
+	// 같은 채널의 대기 중인 메시지를 최신 메시지로 교체
+	CONFLATE
+}
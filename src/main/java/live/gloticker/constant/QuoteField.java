@@ -0,0 +1,10 @@
+package live.gloticker.constant;
+
+// QuoteBook 한 줄의 숫자 값 순서, 타입마다 어느 원본 필드에서 읽는지는 MarketDataType 스키마가 정함
+public enum QuoteField {
+	PRICE,
+	CHANGE,
+	CHANGE_PERCENT,
+	// 주식의 장외(otc) 가격, 있으면 분석에서 PRICE 대신 씀
+	EXTENDED_PRICE
+}
@@ -1,16 +1,67 @@
 package live.gloticker.constant;
 
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import live.gloticker.exception.InvalidRequestException;
 import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 
 @Getter
 @RequiredArgsConstructor
 public enum StreamChannel {
-	ALL_CHANNEL("*.price.stream"),
-	INDEX_CHANNEL("index.price.stream"),
-	STOCK_CHANNEL("stock.price.stream"),
-	CRYPTO_CHANNEL("crypto.price.stream"),
-	FOREX_CHANNEL("forex.price.stream");
+	ALL_CHANNEL("*.price.stream", "*"),
+	INDEX_CHANNEL("index.price.stream", "index"),
+	STOCK_CHANNEL("stock.price.stream", "stock"),
+	CRYPTO_CHANNEL("crypto.price.stream", "crypto"),
+	FOREX_CHANNEL("forex.price.stream", "forex");
 
 	private final String channel;
+	private final String alias;
+
+	private static final Map<String, StreamChannel> BY_CHANNEL = Arrays.stream(values())
+		.collect(Collectors.toUnmodifiableMap(StreamChannel::getChannel, Function.identity()));
+
+	private static final Map<String, StreamChannel> BY_ALIAS = Arrays.stream(values())
+		.filter(StreamChannel::isConcrete)
+		.collect(Collectors.toUnmodifiableMap(StreamChannel::getAlias, Function.identity()));
+
+	private static final Set<StreamChannel> CONCRETE_CHANNELS =
+		Collections.unmodifiableSet(EnumSet.complementOf(EnumSet.of(ALL_CHANNEL)));
+
+	public boolean isConcrete() {
+		return this != ALL_CHANNEL;
+	}
+
+	public static Optional<StreamChannel> fromChannel(String channel) {
+		return Optional.ofNullable(BY_CHANNEL.get(channel));
+	}
+
+	public static Set<StreamChannel> concreteChannels() {
+		return CONCRETE_CHANNELS;
+	}
+
+	// "crypto,forex" 같은 구독 파라미터를 채널 집합으로 변환, 비어 있으면 전체 채널
+	public static Set<StreamChannel> fromAliases(Collection<String> aliases) {
+		if (aliases == null || aliases.isEmpty()) {
+			return concreteChannels();
+		}
+
+		Set<StreamChannel> channels = EnumSet.noneOf(StreamChannel.class);
+		for (String alias : aliases) {
+			StreamChannel channel = BY_ALIAS.get(alias.trim().toLowerCase());
+			if (channel == null) {
+				throw new InvalidRequestException("Unknown channel: " + alias);
+			}
+			channels.add(channel);
+		}
+		return channels;
+	}
 }
@@ -0,0 +1,8 @@
+package live.gloticker.constant;
+
+public enum StreamEngine {
+	// Spring SseEmitter 기반
+	EMITTER,
+	// 서블릿 비동기 + WriteListener 기반 논블로킹 쓰기
+	SERVLET_ASYNC
+}
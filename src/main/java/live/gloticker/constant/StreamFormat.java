@@ -0,0 +1,7 @@
+package live.gloticker.constant;
+
+// 구독자에게 보내는 프레임 인코딩, JSON 은 SSE 텍스트, CBOR 은 WebSocket 바이너리
+public enum StreamFormat {
+	JSON,
+	CBOR
+}
@@ -0,0 +1,21 @@
+package live.gloticker.constant;
+
+import live.gloticker.exception.InvalidRequestException;
+
+public enum StreamMode {
+	// Redis 메시지를 그대로 전달
+	FULL,
+	// 최초 full 프레임 이후 바뀐 필드만 seq 와 함께 전달
+	DELTA;
+
+	public static StreamMode from(String mode) {
+		if (mode == null || mode.isBlank()) {
+			return FULL;
+		}
+		try {
+			return valueOf(mode.trim().toUpperCase());
+		} catch (IllegalArgumentException e) {
+			throw new InvalidRequestException("Unknown stream mode: " + mode, e);
+		}
+	}
+}
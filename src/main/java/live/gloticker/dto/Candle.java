@@ -0,0 +1,11 @@
+package live.gloticker.dto;
+
+// openTime 은 epoch millis, volume 은 그 구간에 받은 틱 수
+public record Candle(
+	long openTime,
+	double open,
+	double high,
+	double low,
+	double close,
+	long volume) {
+}
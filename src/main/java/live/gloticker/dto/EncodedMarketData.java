@@ -0,0 +1,9 @@
+package live.gloticker.dto;
+
+public record EncodedMarketData(
+	long version,
+	byte[] json,
+	byte[] gzip,
+	String jsonEtag,
+	String gzipEtag) {
+}
@@ -0,0 +1,19 @@
+package live.gloticker.dto;
+
+import live.gloticker.constant.MarketDataType;
+
+// QuoteBook 한 줄의 복사본, 없는 값은 NaN, updatedAt 은 epoch millis
+public record Quote(
+	String symbol,
+	MarketDataType type,
+	double price,
+	double change,
+	double changePercent,
+	double extendedPrice,
+	long updatedAt) {
+
+	// 분석에 쓰는 대표 값, 주식은 장외 가격이 있으면 그 값 (MarketDataType.valueExtractor 와 같음)
+	public double value() {
+		return Double.isNaN(extendedPrice) ? price : extendedPrice;
+	}
+}
@@ -0,0 +1,12 @@
+package live.gloticker.exception;
+
+// 클라이언트가 보낸 파라미터가 잘못된 경우, API 는 400 과 메시지로 응답하고 WebSocket 은 BAD_DATA 로 닫음
+public class InvalidRequestException extends RuntimeException {
+	public InvalidRequestException(String message) {
+		super(message);
+	}
+
+	public InvalidRequestException(String message, Throwable cause) {
+		super(message, cause);
+	}
+}
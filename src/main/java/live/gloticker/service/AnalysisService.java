@@ -1,14 +1,13 @@
 package live.gloticker.service;
 
+import java.math.BigDecimal;
 import java.time.LocalDateTime;
 import java.time.ZoneId;
 import java.time.ZonedDateTime;
 import java.time.temporal.ChronoUnit;
-import java.util.Comparator;
 import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.Optional;
-import java.util.stream.Stream;
 
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
@@ -18,8 +17,8 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import jakarta.annotation.PostConstruct;
-import live.gloticker.constant.MarketDataType;
 import live.gloticker.dto.AnalysisData;
+import live.gloticker.dto.Quote;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -100,9 +99,16 @@ public class AnalysisService {
 		}
 	}
 
+	// 타입 order 순으로 심볼 -> 대표 값, 값이 없는 심볼은 뺌
 	public Map<String, String> getAllData() {
-		Map<String, Map<String, String>> marketData = marketService.combineMarketData();
-		return processDataInOrder(marketData);
+		Map<String, String> result = new LinkedHashMap<>();
+		for (Quote quote : marketService.getQuotes()) {
+			double value = quote.value();
+			if (!Double.isNaN(value)) {
+				result.put(quote.symbol(), BigDecimal.valueOf(value).stripTrailingZeros().toPlainString());
+			}
+		}
+		return result;
 	}
 
 	private String analyzeMarket() {
@@ -128,23 +134,4 @@ public class AnalysisService {
 			.reduce((a, b) -> a + "\n" + b)
 			.orElse("");
 	}
-
-	private Map<String, String> processDataInOrder(Map<String, Map<String, String>> data) {
-		Map<String, String> result = new LinkedHashMap<>();
-		Stream.of(MarketDataType.values())
-			.sorted(Comparator.comparingInt(MarketDataType::getOrder))
-			.forEach(type -> processCategory(data, result, type));
-		return result;
-	}
-
-	private void processCategory(
-		Map<String, Map<String, String>> data,
-		Map<String, String> result,
-		MarketDataType type) {
-		data.forEach((symbol, symbolData) -> {
-			if (type.getMatcher().test(symbol, symbolData)) {
-				result.put(symbol, type.getValueExtractor().apply(symbolData));
-			}
-		});
-	}
 }
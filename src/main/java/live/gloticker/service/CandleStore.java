@@ -0,0 +1,140 @@
+package live.gloticker.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import live.gloticker.constant.CandleInterval;
+import live.gloticker.dto.Candle;
+
+// 스트림 틱으로 심볼별 1m/5m/1h OHLC 캔들을 이어 만드는 저장소
+// 심볼 x 간격마다 고정 크기 원시 배열 링 버퍼, 처음 본 심볼에만 배열을 잡고 이후 갱신은 O(1) 이며 할당이 없음
+// 틱이 없던 구간은 캔들을 만들지 않음, 스크래퍼가 구간 거래량을 주지 않으므로 volume 은 틱 수
+@Component
+public class CandleStore {
+	private static final CandleInterval[] INTERVALS = CandleInterval.values();
+
+	// 간격마다 보관하는 캔들 수, CandleInterval 순서
+	private final int[] capacities;
+	private final int maxSymbols;
+	private final Map<String, Ring[]> rings = new ConcurrentHashMap<>();
+
+	public CandleStore(
+		@Value("${stream.candles.capacity.1m:1440}") int oneMinuteCapacity,
+		@Value("${stream.candles.capacity.5m:288}") int fiveMinutesCapacity,
+		@Value("${stream.candles.capacity.1h:168}") int oneHourCapacity,
+		@Value("${stream.candles.max-symbols:500}") int maxSymbols) {
+		this.capacities = new int[INTERVALS.length];
+		capacities[CandleInterval.ONE_MINUTE.ordinal()] = oneMinuteCapacity;
+		capacities[CandleInterval.FIVE_MINUTES.ordinal()] = fiveMinutesCapacity;
+		capacities[CandleInterval.ONE_HOUR.ordinal()] = oneHourCapacity;
+		for (CandleInterval interval : INTERVALS) {
+			if (getCapacity(interval) <= 0) {
+				throw new IllegalArgumentException(
+					"Candle capacity must be positive: " + interval.getAlias() + "=" + getCapacity(interval));
+			}
+		}
+		this.maxSymbols = maxSymbols;
+	}
+
+	public int getCapacity(CandleInterval interval) {
+		return capacities[interval.ordinal()];
+	}
+
+	public void record(String symbol, double price, long epochMillis) {
+		if (Double.isNaN(price)) {
+			return;
+		}
+		Ring[] symbolRings = rings.get(symbol);
+		if (symbolRings == null) {
+			// 잘못된 입력으로 심볼이 끝없이 늘어 메모리를 잡지 않게 막음
+			if (rings.size() >= maxSymbols) {
+				return;
+			}
+			symbolRings = rings.computeIfAbsent(symbol, key -> newRings());
+		}
+		for (Ring ring : symbolRings) {
+			ring.record(price, epochMillis);
+		}
+	}
+
+	// 시작 시각이 [from, to) 인 캔들 중 최신 limit 개를 오래된 순으로
+	public List<Candle> range(String symbol, CandleInterval interval, long from, long to, int limit) {
+		Ring[] symbolRings = rings.get(symbol);
+		if (symbolRings == null) {
+			return List.of();
+		}
+		return symbolRings[interval.ordinal()].range(from, to, limit);
+	}
+
+	private Ring[] newRings() {
+		Ring[] symbolRings = new Ring[INTERVALS.length];
+		for (CandleInterval interval : INTERVALS) {
+			symbolRings[interval.ordinal()] = new Ring(interval, getCapacity(interval));
+		}
+		return symbolRings;
+	}
+
+	private static final class Ring {
+		private final CandleInterval interval;
+		private final long[] openTimes;
+		private final double[] open;
+		private final double[] high;
+		private final double[] low;
+		private final double[] close;
+		private final long[] volume;
+		private int head = -1;
+		private int count;
+
+		private Ring(CandleInterval interval, int capacity) {
+			this.interval = interval;
+			this.openTimes = new long[capacity];
+			this.open = new double[capacity];
+			this.high = new double[capacity];
+			this.low = new double[capacity];
+			this.close = new double[capacity];
+			this.volume = new long[capacity];
+		}
+
+		private synchronized void record(double price, long epochMillis) {
+			long openTime = interval.openTimeOf(epochMillis);
+			// 같은 구간이면 현재 캔들에 합침, 시계가 뒤로 간 틱도 새 캔들을 만들지 않음
+			if (count > 0 && openTime <= openTimes[head]) {
+				high[head] = Math.max(high[head], price);
+				low[head] = Math.min(low[head], price);
+				close[head] = price;
+				volume[head]++;
+				return;
+			}
+			head = (head + 1) % openTimes.length;
+			openTimes[head] = openTime;
+			open[head] = price;
+			high[head] = price;
+			low[head] = price;
+			close[head] = price;
+			volume[head] = 1;
+			count = Math.min(count + 1, openTimes.length);
+		}
+
+		private synchronized List<Candle> range(long from, long to, int limit) {
+			List<Candle> candles = new ArrayList<>(Math.min(limit, count));
+			for (int i = 0; i < count && candles.size() < limit; i++) {
+				int slot = Math.floorMod(head - i, openTimes.length);
+				if (openTimes[slot] >= to) {
+					continue;
+				}
+				if (openTimes[slot] < from) {
+					break;
+				}
+				candles.add(new Candle(openTimes[slot], open[slot], high[slot], low[slot], close[slot], volume[slot]));
+			}
+			Collections.reverse(candles);
+			return candles;
+		}
+	}
+}
@@ -0,0 +1,315 @@
+package live.gloticker.service;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.StringJoiner;
+import java.util.TreeMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.Cursor;
+import org.springframework.data.redis.core.ScanOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PostConstruct;
+import live.gloticker.constant.StreamChannel;
+import live.gloticker.dto.Quote;
+import live.gloticker.stream.MarketMessage;
+import live.gloticker.stream.SnapshotSource;
+import live.gloticker.stream.Subscription;
+import lombok.extern.slf4j.Slf4j;
+
+// snapshot/chart 의 로컬 materialized view
+// 시작 시 SCAN 으로 한 번 채우고, snapshot 은 *.price.stream 메시지로 계속 갱신
+// snapshot view 는 새 SSE 구독자가 처음 받는 스냅샷의 원본이기도 함
+@Slf4j
+@Component
+public class MarketDataCache implements SnapshotSource {
+	public static final String SNAPSHOT = "snapshot";
+	public static final String CHART = "chart";
+	private static final int SCAN_COUNT = 100;
+	// 버전마다 보관하는 구독 조건별 스냅샷 본문 수, 넘치면 비우고 다시 채움
+	private static final int MAX_ENCODED_SNAPSHOTS = 64;
+
+	private final StringRedisTemplate redisTemplate;
+	private final long maxStalenessNanos;
+	private final Map<String, View> views = Map.of(SNAPSHOT, new View(), CHART, new View());
+	private final Timer reloadCalls;
+	private final QuoteBook quoteBook;
+
+	public MarketDataCache(
+		StringRedisTemplate redisTemplate,
+		MeterRegistry meterRegistry,
+		QuoteBook quoteBook,
+		@Value("${stream.cache.max-staleness:30s}") Duration maxStaleness) {
+		this.redisTemplate = redisTemplate;
+		this.maxStalenessNanos = maxStaleness.toNanos();
+		this.quoteBook = quoteBook;
+		this.reloadCalls = Timer.builder("redis.call.duration")
+			.tag("call", "cache_reload")
+			.publishPercentileHistogram()
+			.minimumExpectedValue(Duration.ofNanos(100_000))
+			.maximumExpectedValue(Duration.ofSeconds(5))
+			.register(meterRegistry);
+	}
+
+	@PostConstruct
+	private void warmUp() {
+		views.forEach(this::reload);
+	}
+
+	public List<String> getValues(String type) {
+		View view = views.get(type);
+		if (view == null) {
+			return List.of();
+		}
+		if (view.isStale(maxStalenessNanos)) {
+			reload(type, view);
+		}
+		return view.values();
+	}
+
+	// 내용이 바뀔 때마다 증가, 인코딩된 응답 캐시의 무효화 기준
+	public long getVersion(String type) {
+		View view = views.get(type);
+		if (view == null) {
+			return 0;
+		}
+		if (view.isStale(maxStalenessNanos)) {
+			reload(type, view);
+		}
+		return view.version;
+	}
+
+	// snapshot 의 숫자 값, view 와 같은 기준으로 오래되면 Redis 에서 다시 읽은 뒤 돌려줌
+	public List<Quote> getQuotes() {
+		View view = views.get(SNAPSHOT);
+		if (view.isStale(maxStalenessNanos)) {
+			reload(SNAPSHOT, view);
+		}
+		return quoteBook.quotes();
+	}
+
+	@Override
+	public void apply(MarketMessage message) {
+		views.get(SNAPSHOT).apply(message);
+		quoteBook.apply(message);
+	}
+
+	@Override
+	public byte[] encode(Subscription subscription) {
+		return views.get(SNAPSHOT).encode(subscription);
+	}
+
+	// Redis 에서만 읽은 키는 어느 채널인지 모르므로 "snapshot:crypto" 같은 키 이름으로 짐작, 모르면 null
+	private static StreamChannel channelOfKey(String key) {
+		String suffix = key.substring(key.indexOf(':') + 1);
+		for (StreamChannel channel : StreamChannel.concreteChannels()) {
+			if (suffix.equals(channel.getAlias()) || suffix.equals(channel.getChannel())) {
+				return channel;
+			}
+		}
+		return null;
+	}
+
+	// 갱신이 끊겨 오래된 view 는 Redis 에서 다시 읽음, 이미 읽는 스레드가 있으면 기존 값을 그대로 씀
+	private void reload(String type, View view) {
+		if (view.isLoaded()) {
+			if (!view.reloadLock.tryLock()) {
+				return;
+			}
+		} else {
+			view.reloadLock.lock();
+		}
+
+		try {
+			if (view.isLoaded() && !view.isStale(maxStalenessNanos)) {
+				return;
+			}
+			long readAt = System.currentTimeMillis();
+			long startedAt = System.nanoTime();
+			Map<String, String> values = scanValues(type + "*");
+			reloadCalls.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+			view.replace(values);
+			if (SNAPSHOT.equals(type)) {
+				quoteBook.replace(values.values(), readAt);
+			}
+		} catch (Exception e) {
+			log.error("Failed to load {} data from Redis: {}", type, e.getMessage());
+		} finally {
+			view.reloadLock.unlock();
+		}
+	}
+
+	// KEYS 대신 SCAN 으로 키를 모아 Redis 를 막지 않음
+	private Map<String, String> scanValues(String pattern) {
+		List<String> keys = new ArrayList<>();
+		ScanOptions options = ScanOptions.scanOptions().match(pattern).count(SCAN_COUNT).build();
+		try (Cursor<String> cursor = redisTemplate.scan(options)) {
+			cursor.forEachRemaining(keys::add);
+		}
+		if (keys.isEmpty()) {
+			log.debug("No data found in Redis for pattern: {}", pattern);
+			return Map.of();
+		}
+
+		List<String> values = redisTemplate.opsForValue().multiGet(keys);
+		if (values == null || values.isEmpty()) {
+			log.debug("Failed to retrieve data from Redis for pattern: {}", pattern);
+			return Map.of();
+		}
+
+		Map<String, String> result = new TreeMap<>();
+		for (int i = 0; i < keys.size(); i++) {
+			if (values.get(i) != null) {
+				result.put(keys.get(i), values.get(i));
+			}
+		}
+		return result;
+	}
+
+	private static final class View {
+		private final ReentrantLock reloadLock = new ReentrantLock();
+		private final Map<String, Entry> entries = new TreeMap<>();
+		private final Map<String, String> symbolKeys = new HashMap<>();
+		private final Map<String, String> channelKeys = new HashMap<>();
+		private volatile boolean loaded;
+		private volatile long refreshedAt;
+		private volatile long version;
+		// 재연결이 몰려도 같은 버전, 같은 구독 조건의 스냅샷은 한 번만 인코딩, 값이 없으면 빈 배열
+		private final Map<List<Object>, byte[]> encoded = new HashMap<>();
+		private long encodedVersion = -1;
+
+		boolean isLoaded() {
+			return loaded;
+		}
+
+		boolean isStale(long maxStalenessNanos) {
+			return !loaded || System.nanoTime() - refreshedAt > maxStalenessNanos;
+		}
+
+		synchronized List<String> values() {
+			return entries.values().stream()
+				.map(Entry::json)
+				.toList();
+		}
+
+		// 구독 조건에 맞는 심볼의 "SYM":{...} 를 이어 붙인 본문, 보낼 값이 없으면 null
+		synchronized byte[] encode(Subscription subscription) {
+			if (encodedVersion != version || encoded.size() >= MAX_ENCODED_SNAPSHOTS) {
+				encoded.clear();
+				encodedVersion = version;
+			}
+			byte[] body = encoded.computeIfAbsent(List.of(subscription.channels(), subscription.symbols()),
+				key -> encodeBody(subscription));
+			return body.length == 0 ? null : body;
+		}
+
+		private byte[] encodeBody(Subscription subscription) {
+			Map<String, StreamChannel> keyChannels = new HashMap<>();
+			channelKeys.forEach((channel, key) -> StreamChannel.fromChannel(channel)
+				.filter(StreamChannel::isConcrete)
+				.ifPresent(streamChannel -> keyChannels.put(key, streamChannel)));
+			StringJoiner body = new StringJoiner(",", "{", "}").setEmptyValue("");
+			for (Entry entry : entries.values()) {
+				StreamChannel channel = keyChannels.containsKey(entry.key)
+					? keyChannels.get(entry.key)
+					: channelOfKey(entry.key);
+				if (!subscription.accepts(channel)) {
+					continue;
+				}
+				entry.symbols().forEach((symbol, json) -> {
+					if (!subscription.hasSymbolFilter() || subscription.symbols().contains(symbol)) {
+						body.add(json);
+					}
+				});
+			}
+			return body.toString().getBytes(StandardCharsets.UTF_8);
+		}
+
+		synchronized void replace(Map<String, String> values) {
+			entries.clear();
+			symbolKeys.clear();
+			channelKeys.clear();
+			values.forEach((key, json) -> entries.put(key, new Entry(key, json)));
+			markRefreshed();
+		}
+
+		// 메시지의 심볼이 속한 Redis 키를 찾아 그 키의 값에 심볼 단위로 병합
+		synchronized void apply(MarketMessage message) {
+			List<MarketMessage.Segment> segments = message.segments();
+			if (segments.isEmpty()) {
+				return;
+			}
+			String key = channelKeys.computeIfAbsent(message.getChannel(), channel -> findKey(segments, channel));
+			entries.computeIfAbsent(key, name -> new Entry(name, "{}")).merge(message);
+			if (loaded) {
+				markRefreshed();
+			} else {
+				version++;
+			}
+		}
+
+		private String findKey(List<MarketMessage.Segment> segments, String channel) {
+			if (symbolKeys.isEmpty()) {
+				entries.values().forEach(entry ->
+					entry.symbols().keySet().forEach(symbol -> symbolKeys.put(symbol, entry.key)));
+			}
+			return segments.stream()
+				.map(segment -> symbolKeys.get(segment.symbol()))
+				.filter(Objects::nonNull)
+				.findFirst()
+				.orElse(SNAPSHOT + ":" + channel);
+		}
+
+		private void markRefreshed() {
+			version++;
+			refreshedAt = System.nanoTime();
+			loaded = true;
+		}
+	}
+
+	// Redis 키 하나의 값, 스트림으로 병합될 때만 심볼 단위로 풀고 읽을 때 다시 이어 붙임
+	private static final class Entry {
+		private final String key;
+		private String json;
+		private LinkedHashMap<String, String> symbols;
+
+		private Entry(String key, String json) {
+			this.key = key;
+			this.json = json;
+		}
+
+		private Map<String, String> symbols() {
+			if (symbols == null) {
+				MarketMessage parsed = new MarketMessage(key, json.getBytes(StandardCharsets.UTF_8));
+				symbols = new LinkedHashMap<>();
+				parsed.segments().forEach(segment -> symbols.put(segment.symbol(), parsed.entry(segment)));
+			}
+			return symbols;
+		}
+
+		private void merge(MarketMessage message) {
+			Map<String, String> current = symbols();
+			message.segments().forEach(segment -> current.put(segment.symbol(), message.entry(segment)));
+			json = null;
+		}
+
+		private String json() {
+			if (json == null) {
+				json = "{" + String.join(",", symbols.values()) + "}";
+			}
+			return json;
+		}
+	}
+}
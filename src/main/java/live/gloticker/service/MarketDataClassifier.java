@@ -0,0 +1,40 @@
+package live.gloticker.service;
+
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.stereotype.Component;
+
+import live.gloticker.constant.MarketDataType;
+
+// 심볼 → MarketDataType 분류, 심볼마다 matcher 를 한 번만 돌리고 결과를 기억함
+// 심볼의 카테고리는 거의 바뀌지 않으므로 필드 구성(MarketDataType.shapeOf)이 달라질 때만 다시 분류
+@Component
+public class MarketDataClassifier {
+	// 스크래퍼가 다루는 심볼은 수백 개, 잘못된 입력으로 끝없이 늘지 않게만 막음
+	private static final int MAX_SYMBOLS = 10_000;
+
+	private final Map<String, Classification> classifications = new ConcurrentHashMap<>();
+
+	public Optional<MarketDataType> classify(String symbol, Map<String, String> data) {
+		return Optional.ofNullable(typeOf(symbol, data));
+	}
+
+	private MarketDataType typeOf(String symbol, Map<String, String> data) {
+		int shape = MarketDataType.shapeOf(data);
+		Classification cached = classifications.get(symbol);
+		if (cached != null && cached.shape() == shape) {
+			return cached.type();
+		}
+		MarketDataType type = MarketDataType.match(symbol, data);
+		if (cached == null && classifications.size() >= MAX_SYMBOLS) {
+			classifications.clear();
+		}
+		classifications.put(symbol, new Classification(shape, type));
+		return type;
+	}
+
+	private record Classification(int shape, MarketDataType type) {
+	}
+}
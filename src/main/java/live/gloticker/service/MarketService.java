@@ -1,20 +1,29 @@
 package live.gloticker.service;
 
-import java.util.Collections;
-import java.util.LinkedHashMap;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Map;
 import java.util.Objects;
-import java.util.Optional;
-import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
+import java.util.zip.GZIPOutputStream;
 
-import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.util.DigestUtils;
 
-import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import live.gloticker.constant.CandleInterval;
+import live.gloticker.dto.Candle;
+import live.gloticker.dto.EncodedMarketData;
+import live.gloticker.dto.Quote;
+import live.gloticker.exception.InvalidRequestException;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -22,37 +31,91 @@ import lombok.extern.slf4j.Slf4j;
 @RequiredArgsConstructor
 @Slf4j
 public class MarketService {
-	private final StringRedisTemplate redisTemplate;
+	private final MarketDataCache marketDataCache;
 	private final ObjectMapper objectMapper;
+	private final MeterRegistry meterRegistry;
+	private final CandleStore candleStore;
+	private final Map<String, EncodedMarketData> encodedData = new ConcurrentHashMap<>();
 
 	public List<Object> getAllData(String type) {
-		return getRedisValues(type + "*")
-				.map(this::parseJsonData)
-				.orElse(Collections.emptyList());
+		return parseJsonData(marketDataCache.getValues(type));
 	}
 
-	public Optional<List<String>> getRedisValues(String pattern) {
-		Set<String> keys = redisTemplate.keys(pattern);
-		if (keys == null || keys.isEmpty()) {
-			log.debug("No data found in Redis for pattern: {}", pattern);
-			return Optional.empty();
+	// 데이터가 바뀐 경우에만 JSON 배열 본문과 gzip, ETag 를 다시 만듦
+	public EncodedMarketData getEncodedData(String type) {
+		long version = marketDataCache.getVersion(type);
+		EncodedMarketData cached = encodedData.get(type);
+		if (cached != null && cached.version() == version) {
+			return cached;
 		}
 
-		List<String> values = redisTemplate.opsForValue().multiGet(keys);
-		if (values == null || values.isEmpty()) {
-			log.debug("Failed to retrieve data from Redis for pattern: {}", pattern);
-			return Optional.empty();
+		long startedAt = System.nanoTime();
+		EncodedMarketData encoded = encode(version, marketDataCache.getValues(type));
+		encodedData.put(type, encoded);
+		// 데이터가 바뀐 뒤 첫 요청에서만 실행되므로 여기서 meter 를 찾아도 부담이 없음, type 은 API 에서 검증됨
+		Timer.builder("market.data.encode")
+			.description("Time to rebuild the cached JSON, gzip and ETag for a market data type")
+			.tag("type", type)
+			.register(meterRegistry)
+			.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+		return encoded;
+	}
+
+	// Redis 값은 이미 JSON 이므로 Jackson 으로 다시 직렬화하지 않고 배열로 이어 붙임
+	private EncodedMarketData encode(long version, List<String> values) {
+		String body = values.stream()
+			.filter(this::isValidJson)
+			.collect(Collectors.joining(",", "[", "]"));
+		byte[] json = body.getBytes(StandardCharsets.UTF_8);
+		// 표현마다 바이트가 다르므로 강한 ETag 도 달라야 함, gzip 본문은 같은 해시에 접미사를 붙임
+		String hash = DigestUtils.md5DigestAsHex(json);
+		return new EncodedMarketData(version, json, gzip(json), "\"" + hash + "\"", "\"" + hash + "-gzip\"");
+	}
+
+	private boolean isValidJson(String value) {
+		try (JsonParser parser = objectMapper.getFactory().createParser(value)) {
+			while (parser.nextToken() != null) {
+				parser.skipChildren();
+			}
+			return true;
+		} catch (IOException e) {
+			log.error("Failed to parse JSON: {}", e.getMessage());
+			return false;
 		}
-		return Optional.of(values);
 	}
 
-	public Map<String, Map<String, String>> combineMarketData() {
-		return getRedisValues("snapshot*")
-				.map(this::parseMarketData)
-				.orElse(Collections.emptyMap());
+	private byte[] gzip(byte[] json) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(json.length / 4 + 64);
+		try (GZIPOutputStream gzip = new GZIPOutputStream(out)) {
+			gzip.write(json);
+		} catch (IOException e) {
+			throw new IllegalStateException("Failed to gzip market data", e);
+		}
+		return out.toByteArray();
 	}
 
-	private List<Object> parseJsonData(List<String> values) {
+	// from/to 는 epoch millis, 없으면 보관 중인 전체 구간에서 최신 limit 개
+	public List<Candle> getCandles(String symbol, String interval, Long from, Long to, Integer limit) {
+		CandleInterval candleInterval = CandleInterval.from(interval);
+		int capacity = candleStore.getCapacity(candleInterval);
+		int count = limit != null ? limit : capacity;
+		if (count <= 0 || count > capacity) {
+			throw new InvalidRequestException(
+				"limit must be between 1 and " + capacity + " for interval " + candleInterval.getAlias());
+		}
+		long start = from != null ? from : Long.MIN_VALUE;
+		long end = to != null ? to : Long.MAX_VALUE;
+		if (start > end) {
+			throw new InvalidRequestException("from must not be after to");
+		}
+		return candleStore.range(symbol.trim(), candleInterval, start, end, count);
+	}
+
+	public List<Quote> getQuotes() {
+		return marketDataCache.getQuotes();
+	}
+
+	List<Object> parseJsonData(List<String> values) {
 		return values.stream()
 				.map(value -> {
 					try {
@@ -65,20 +128,4 @@ public class MarketService {
 				.filter(Objects::nonNull)
 				.collect(Collectors.toList());
 	}
-
-	private Map<String, Map<String, String>> parseMarketData(List<String> values) {
-		Map<String, Map<String, String>> combinedData = new LinkedHashMap<>();
-		values.forEach(value -> {
-			try {
-				Map<String, Map<String, String>> data = objectMapper.readValue(
-						value,
-						new TypeReference<>() {
-						});
-				combinedData.putAll(data);
-			} catch (Exception e) {
-				log.error("Failed to parse market data: {}", e.getMessage());
-			}
-		});
-		return combinedData;
-	}
 }
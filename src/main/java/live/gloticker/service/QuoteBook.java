@@ -0,0 +1,221 @@
+package live.gloticker.service;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import org.springframework.stereotype.Component;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import live.gloticker.constant.MarketDataType;
+import live.gloticker.constant.QuoteField;
+import live.gloticker.dto.Quote;
+import live.gloticker.stream.MarketMessage;
+import lombok.extern.slf4j.Slf4j;
+
+// snapshot 시세의 숫자 값만 담는 저장소, 심볼마다 슬롯 하나를 두고 틱이 오면 그 자리에서 덮어씀
+// 값은 슬롯마다 QuoteField 순서로 double 배열 한 줄, 잠금도 슬롯 단위라 채널이 다른 ingest lane 끼리 막지 않음
+// 심볼 이름은 JsonFactory 의 심볼 테이블이 정규화하므로 메시지마다 새 키를 만들지 않음
+// MarketDataCache 의 snapshot view 가 다시 읽히거나 스트림 메시지가 병합될 때 함께 갱신되고, 틱은 CandleStore 로 넘김
+@Slf4j
+@Component
+public class QuoteBook {
+	private static final QuoteField[] QUOTE_FIELDS = QuoteField.values();
+	private static final JsonFactory JSON_FACTORY = new JsonFactory();
+	// 어느 타입의 스키마에든 있는 필드, 이 필드들만 값을 꺼내고 나머지는 분류용으로 이름만 봄
+	private static final Set<String> NUMERIC_FIELDS = MarketDataType.quoteFieldNames();
+
+	private final MarketDataClassifier classifier;
+	private final CandleStore candleStore;
+	// 다시 읽을 때는 새 디렉터리를 채운 뒤 통째로 바꿔 끼움
+	private volatile Slots slots = new Slots();
+
+	public QuoteBook(MarketDataClassifier classifier, CandleStore candleStore) {
+		this.classifier = classifier;
+		this.candleStore = candleStore;
+	}
+
+	// Redis 에서 snapshot 전체를 다시 읽었을 때, readAt 은 읽기 시작한 시각이고 다시 읽은 값의 updatedAt 이 됨
+	// 새 디렉터리를 채우는 동안 들어온 틱은 이전 디렉터리에만 반영되므로, 바꿔 끼운 뒤 readAt 이후 갱신된 슬롯을 옮겨 옴
+	public void replace(Collection<String> snapshotValues, long readAt) {
+		Slots replaced = new Slots();
+		for (String json : snapshotValues) {
+			update(replaced, MarketDataCache.SNAPSHOT, json.getBytes(StandardCharsets.UTF_8), readAt, false);
+		}
+		Slots previous = slots;
+		slots = replaced;
+		previous.ordered.forEach(slot -> {
+			if (slot.updatedAt() >= readAt) {
+				replaced.slot(slot.symbol).copyIfNewer(slot);
+			}
+		});
+	}
+
+	// 바꿔 끼우기 직전에 이전 디렉터리에 쓴 틱은 위의 병합이 옮기고, 그 뒤에 끝난 쓰기는 여기서 새 디렉터리에도 씀
+	public void apply(MarketMessage message) {
+		long now = System.currentTimeMillis();
+		Slots target = slots;
+		update(target, message.getChannel(), message.body(), now, true);
+		Slots current = slots;
+		if (current != target) {
+			update(current, message.getChannel(), message.body(), now, false);
+		}
+	}
+
+	// 타입 order 순, 같은 타입 안에서는 처음 들어온 순서
+	public List<Quote> quotes() {
+		List<Slot> ordered = slots.ordered;
+		List<Quote> all = new ArrayList<>(ordered.size());
+		ordered.forEach(slot -> all.add(slot.quote()));
+		List<Quote> quotes = new ArrayList<>(all.size());
+		for (MarketDataType type : MarketDataType.inOrder()) {
+			for (Quote quote : all) {
+				if (quote.type() == type) {
+					quotes.add(quote);
+				}
+			}
+		}
+		return quotes;
+	}
+
+	// 메시지 하나를 파서 하나로 훑으며 심볼마다 슬롯을 갱신, 스트림 틱(live)만 캔들에 반영
+	private void update(Slots target, String channel, byte[] body, long now, boolean live) {
+		// 심볼 하나의 필드 이름 -> 값, 다음 심볼에 재사용
+		Map<String, String> fields = new HashMap<>();
+		try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+			if (parser.nextToken() != JsonToken.START_OBJECT) {
+				return;
+			}
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				String symbol = parser.currentName();
+				if (parser.nextToken() != JsonToken.START_OBJECT) {
+					parser.skipChildren();
+					continue;
+				}
+				readFields(parser, fields);
+				MarketDataType type = classifier.classify(symbol, fields).orElse(null);
+				if (type == null) {
+					continue;
+				}
+				double price = target.slot(symbol).update(type, fields, now);
+				if (live) {
+					candleStore.record(symbol, price, now);
+				}
+			}
+		} catch (IOException e) {
+			log.debug("Skipped the rest of a malformed quote message on {}: {}", channel, e.getMessage());
+		}
+	}
+
+	// 심볼 값 객체의 필드를 fields 에 담음, 숫자 후보가 아닌 필드는 이름만 남김
+	private static void readFields(JsonParser parser, Map<String, String> fields) throws IOException {
+		fields.clear();
+		while (parser.nextToken() == JsonToken.FIELD_NAME) {
+			String name = parser.currentName();
+			JsonToken value = parser.nextToken();
+			if (value.isStructStart()) {
+				parser.skipChildren();
+				fields.put(name, "");
+			} else {
+				fields.put(name, NUMERIC_FIELDS.contains(name) ? parser.getText() : "");
+			}
+		}
+	}
+
+	// 스크래퍼는 숫자도 문자열로 씀, "1,234.5" 나 "0.84%" 같은 표기도 받음
+	static double parse(String text) {
+		if (text == null || text.isEmpty()) {
+			return Double.NaN;
+		}
+		String number = text.endsWith("%") ? text.substring(0, text.length() - 1) : text;
+		if (number.indexOf(',') >= 0) {
+			number = number.replace(",", "");
+		}
+		try {
+			return Double.parseDouble(number);
+		} catch (NumberFormatException e) {
+			return Double.NaN;
+		}
+	}
+
+	// 심볼 -> 슬롯, 새 심볼은 드물게만 생기므로 처음 들어온 순서는 copy-on-write 목록으로 둠
+	private static final class Slots {
+		private final Map<String, Slot> bySymbol = new ConcurrentHashMap<>();
+		private final List<Slot> ordered = new CopyOnWriteArrayList<>();
+
+		private Slot slot(String symbol) {
+			Slot slot = bySymbol.get(symbol);
+			if (slot != null) {
+				return slot;
+			}
+			return bySymbol.computeIfAbsent(symbol, key -> {
+				Slot created = new Slot(key);
+				ordered.add(created);
+				return created;
+			});
+		}
+	}
+
+	private static final class Slot {
+		private final String symbol;
+		private final double[] values = new double[QUOTE_FIELDS.length];
+		private MarketDataType type;
+		private long updatedAt;
+
+		private Slot(String symbol) {
+			this.symbol = symbol;
+		}
+
+		// 갱신한 가격을 돌려줘 캔들 기록은 잠금 밖에서 함
+		private synchronized double update(MarketDataType type, Map<String, String> fields, long now) {
+			this.type = type;
+			for (QuoteField field : QUOTE_FIELDS) {
+				values[field.ordinal()] = parse(fields.get(type.quoteField(field)));
+			}
+			updatedAt = now;
+			return values[QuoteField.PRICE.ordinal()];
+		}
+
+		private synchronized long updatedAt() {
+			return updatedAt;
+		}
+
+		// 다른 디렉터리의 같은 심볼 슬롯이 더 최근에 갱신됐으면 그 값으로 덮어씀
+		private void copyIfNewer(Slot source) {
+			double[] copied;
+			MarketDataType sourceType;
+			long sourceUpdatedAt;
+			synchronized (source) {
+				copied = source.values.clone();
+				sourceType = source.type;
+				sourceUpdatedAt = source.updatedAt;
+			}
+			synchronized (this) {
+				if (sourceUpdatedAt >= updatedAt) {
+					System.arraycopy(copied, 0, values, 0, values.length);
+					type = sourceType;
+					updatedAt = sourceUpdatedAt;
+				}
+			}
+		}
+
+		private synchronized Quote quote() {
+			return new Quote(symbol, type,
+				values[QuoteField.PRICE.ordinal()],
+				values[QuoteField.CHANGE.ordinal()],
+				values[QuoteField.CHANGE_PERCENT.ordinal()],
+				values[QuoteField.EXTENDED_PRICE.ordinal()],
+				updatedAt);
+		}
+	}
+}
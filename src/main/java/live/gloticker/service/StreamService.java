@@ -1,24 +1,40 @@
 package live.gloticker.service;
 
 import java.io.IOException;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.connection.MessageListener;
 import org.springframework.data.redis.listener.PatternTopic;
 import org.springframework.data.redis.listener.RedisMessageListenerContainer;
 import org.springframework.scheduling.annotation.EnableScheduling;
-import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import jakarta.annotation.PostConstruct;
 import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import live.gloticker.constant.IngestSource;
 import live.gloticker.constant.StreamChannel;
+import live.gloticker.constant.StreamEngine;
+import live.gloticker.stream.AsyncSseConnection;
+import live.gloticker.stream.EmitterConnection;
+import live.gloticker.stream.IngestDispatcher;
+import live.gloticker.stream.MarketMessage;
+import live.gloticker.stream.RedisStreamReader;
+import live.gloticker.stream.SseConnection;
+import live.gloticker.stream.SseFrame;
+import live.gloticker.stream.StreamFanout;
+import live.gloticker.stream.Subscription;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
@@ -28,85 +44,175 @@ import lombok.extern.slf4j.Slf4j;
 @EnableScheduling
 public class StreamService {
 	private final RedisMessageListenerContainer container;
-	private final ObjectMapper objectMapper;
-	private final ConcurrentHashMap<String, SseEmitter> emitters = new ConcurrentHashMap<>();
-	private static final long TIMEOUT = 30 * 60 * 1000L; // 30분
+	private final StreamFanout fanout;
+	private final IngestDispatcher dispatcher;
+	private final RedisStreamReader streamReader;
+	private final MeterRegistry meterRegistry;
+	// 연결 수명, heartbeat, 멈춘 연결 정리는 StreamFanout 의 heartbeat 휠이 담당하므로 컨테이너 타임아웃은 끔
+	private static final long NO_TIMEOUT = 0L;
+	private static final SseFrame CONNECTED_FRAME = SseFrame.comment("connected");
+
+	@Value("${stream.engine:EMITTER}")
+	private StreamEngine engine;
+
+	@Value("${stream.ingest.source:PUBSUB}")
+	private IngestSource source;
+
+	// init 에서 한 번 만들고 이후 읽기만 함, 메시지마다 태그로 meter 를 찾지 않음
+	private final Map<String, Counter> receivedMessages = new HashMap<>();
+	private Counter otherReceivedMessages;
+	private Timer ingestLag;
 
 	@PostConstruct
 	private void init() {
+		StreamChannel.concreteChannels().forEach(streamChannel ->
+			receivedMessages.put(streamChannel.getChannel(), receivedCounter(streamChannel.getAlias())));
+		// enum 에 없는 채널은 태그 값이 늘어나지 않도록 하나로 묶음
+		otherReceivedMessages = receivedCounter("other");
+		ingestLag = Timer.builder("stream.ingest.lag")
+			.description("Time from Redis receive until an ingest lane starts processing the message")
+			.publishPercentileHistogram()
+			.minimumExpectedValue(Duration.ofNanos(10_000))
+			.maximumExpectedValue(Duration.ofSeconds(10))
+			.register(meterRegistry);
+		// 부하 테스트가 어느 엔진을 쟀는지 결과에 남길 수 있도록 노출
+		Gauge.builder("stream.engine", () -> 1)
+			.description("SSE engine this node runs with, always 1")
+			.tag("engine", engine.name())
+			.register(meterRegistry);
+
+		if (source == IngestSource.STREAMS) {
+			// 처리를 마친 레코드만 commit 하므로 재시작하면 lane 에 남아 있던 레코드부터 다시 읽음
+			streamReader.start((channel, id, body) -> {
+				long receivedAt = System.nanoTime();
+				dispatcher.dispatch(channel, () -> {
+					process(channel, body, receivedAt);
+					streamReader.commit(channel, id);
+				});
+			});
+			log.info("Reading all price stream channels from Redis Streams");
+			return;
+		}
+
 		MessageListener listener = (message, pattern) -> {
-			try {
-				String payload = new String(message.getBody());
-				log.info("[Redis] Channel: {} | Received {} items",
-					new String(message.getChannel()),
-					objectMapper.readTree(payload).size());
-				sendToAllEmitters(payload);
-			} catch (Exception e) {
-				log.error("Failed to process message: ", e);
-			}
+			long receivedAt = System.nanoTime();
+			String channel = new String(message.getChannel());
+			byte[] body = message.getBody();
+			dispatcher.dispatch(channel, () -> process(channel, body, receivedAt));
 		};
 
 		container.addMessageListener(listener, new PatternTopic(StreamChannel.ALL_CHANNEL.getChannel()));
 		log.info("Subscribed to all price stream channels");
 	}
 
-	@PreDestroy
-	private void cleanup() {
-		container.stop();
-		emitters.clear();
-		log.info("Cleaned up Redis container and emitters");
+	private Counter receivedCounter(String channel) {
+		return Counter.builder("stream.ingest.messages")
+			.tag("channel", channel)
+			.register(meterRegistry);
 	}
 
-	private void sendToAllEmitters(Object message) {
-		emitters.forEach((clientId, emitter) -> {
-			try {
-				emitter.send(message);
-			} catch (Exception e) {
-				emitters.remove(clientId);
-				log.debug("Removed client {} due to send failure", clientId);
+	private void process(String channel, byte[] body, long receivedAt) {
+		ingestLag.record(System.nanoTime() - receivedAt, TimeUnit.NANOSECONDS);
+		receivedMessages.getOrDefault(channel, otherReceivedMessages).increment();
+		try {
+			// 본문은 문자열로 바꾸거나 트리로 파싱하지 않고 byte[] 그대로 넘김
+			// 심볼 구간은 캐시/필터가 처음 요청할 때 한 번만 스트리밍 스캔하고 메시지에 보관
+			// MarketDataCache 는 접속 스냅샷의 원본이므로 StreamFanout 이 발행 잠금 안에서 갱신함
+			MarketMessage marketMessage = new MarketMessage(channel, body, receivedAt);
+			fanout.publish(marketMessage);
+			if (log.isInfoEnabled()) {
+				log.info("[Redis] Channel: {} | Received {} items", channel, marketMessage.segments().size());
 			}
-		});
+		} catch (Exception e) {
+			log.error("Failed to process message: ", e);
+		}
 	}
 
-	@Scheduled(fixedRate = 15000)
-	public void sendHeartbeat() {
-		String ping = String.format("ping %s",
-			LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss")));
-		sendToAllEmitters(ping);
+	@PreDestroy
+	private void cleanup() {
+		container.stop();
+		log.info("Cleaned up Redis container and emitters");
 	}
 
-	public SseEmitter subscribe() {
+	public SseEmitter subscribe(
+		Subscription subscription,
+		Long lastEventId,
+		HttpServletRequest request,
+		HttpServletResponse response) {
 		String clientId = UUID.randomUUID().toString();
-		SseEmitter emitter = new SseEmitter(TIMEOUT);
+		if (engine == StreamEngine.SERVLET_ASYNC) {
+			subscribeAsync(clientId, subscription, lastEventId, request, response);
+			return null;
+		}
+
+		SseEmitter emitter = new SseEmitter(NO_TIMEOUT);
 
 		emitter.onCompletion(() -> {
-			if (emitters.remove(clientId) != null) {
-				log.debug("Client {} completed connection. Remaining clients: {}", clientId, emitters.size());
+			if (fanout.remove(clientId)) {
+				log.debug("Client {} completed connection. Remaining clients: {}", clientId, fanout.size());
 			}
 		});
 
 		emitter.onTimeout(() -> {
-			if (emitters.remove(clientId) != null) {
-				log.debug("Client {} connection timed out. Remaining clients: {}", clientId, emitters.size());
+			if (fanout.remove(clientId)) {
+				log.debug("Client {} connection timed out. Remaining clients: {}", clientId, fanout.size());
 			}
 		});
 
 		emitter.onError(ex -> {
-			if (emitters.remove(clientId) != null) {
+			if (fanout.remove(clientId)) {
 				log.debug("Client {} connection error: {}. Remaining clients: {}",
-					clientId, ex.getMessage(), emitters.size());
+					clientId, ex.getMessage(), fanout.size());
 			}
 		});
 
 		try {
 			emitter.send(SseEmitter.event().comment("connected"));
-			emitters.put(clientId, emitter);
-			log.debug("New client {} subscribed. Total clients: {}", clientId, emitters.size());
+			fanout.register(clientId, new EmitterConnection(emitter), subscription, lastEventId);
+			log.debug("New client {} subscribed to {} {}. Total clients: {}",
+				clientId, subscription.channels(), subscription.symbols(), fanout.size());
 		} catch (IOException e) {
 			log.debug("Failed to send initial ping to client {}", clientId);
-			emitters.remove(clientId);
+			fanout.remove(clientId);
 		}
 
 		return emitter;
 	}
+
+	// SseEmitter 대신 서블릿 비동기 컨텍스트에 직접 쓰는 엔진, 이벤트 형식과 heartbeat 는 동일
+	private void subscribeAsync(
+		String clientId,
+		Subscription subscription,
+		Long lastEventId,
+		HttpServletRequest request,
+		HttpServletResponse response) {
+		try {
+			AsyncSseConnection connection =
+				AsyncSseConnection.start(request, response, NO_TIMEOUT, CONNECTED_FRAME);
+			connection.onClose(() -> {
+				if (fanout.remove(clientId)) {
+					log.debug("Client {} connection closed. Remaining clients: {}", clientId, fanout.size());
+				}
+			});
+			fanout.register(clientId, connection, subscription, lastEventId);
+			log.debug("New client {} subscribed to {} {}. Total clients: {}",
+				clientId, subscription.channels(), subscription.symbols(), fanout.size());
+		} catch (IOException e) {
+			log.debug("Failed to send initial ping to client {}", clientId);
+			fanout.remove(clientId);
+		}
+	}
+
+	// WebSocket 구독, 재전송 없이 hello 프레임부터 시작
+	public void subscribe(String clientId, SseConnection connection, Subscription subscription) {
+		fanout.register(clientId, connection, subscription, null);
+		log.debug("New {} client {} subscribed to {} {}. Total clients: {}",
+			subscription.format(), clientId, subscription.channels(), subscription.symbols(), fanout.size());
+	}
+
+	public void unsubscribe(String clientId) {
+		if (fanout.remove(clientId)) {
+			log.debug("Client {} connection closed. Remaining clients: {}", clientId, fanout.size());
+		}
+	}
 }
@@ -0,0 +1,121 @@
+package live.gloticker.stream;
+
+import java.io.IOException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.springframework.http.MediaType;
+
+import jakarta.servlet.AsyncContext;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.WriteListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// SseEmitter 를 거치지 않고 서블릿 비동기 컨텍스트에 논블로킹으로 직접 쓰는 연결
+// 연결마다 DeferredResult, 메시지 컨버터 체인, 핸들러 객체를 두지 않아 연결당 메모리가 작음
+public class AsyncSseConnection implements SseConnection {
+	private final AsyncContext asyncContext;
+	private final ServletOutputStream outputStream;
+	private final AtomicBoolean closed = new AtomicBoolean();
+	private volatile Runnable writableCallback = () -> {
+	};
+	private volatile Runnable closeCallback = () -> {
+	};
+
+	private AsyncSseConnection(AsyncContext asyncContext, ServletOutputStream outputStream) {
+		this.asyncContext = asyncContext;
+		this.outputStream = outputStream;
+	}
+
+	// 첫 프레임은 논블로킹 모드로 바꾸기 전에 요청 스레드에서 바로 씀
+	public static AsyncSseConnection start(
+		HttpServletRequest request,
+		HttpServletResponse response,
+		long timeout,
+		SseFrame firstFrame) throws IOException {
+		response.setContentType(MediaType.TEXT_EVENT_STREAM_VALUE);
+		response.setCharacterEncoding("UTF-8");
+		AsyncContext asyncContext = request.startAsync(request, response);
+		asyncContext.setTimeout(timeout);
+
+		ServletOutputStream outputStream = response.getOutputStream();
+		firstFrame.writeTo(outputStream);
+		outputStream.flush();
+
+		AsyncSseConnection connection = new AsyncSseConnection(asyncContext, outputStream);
+		asyncContext.addListener(connection.new Listener());
+		outputStream.setWriteListener(connection.new Writer());
+		return connection;
+	}
+
+	@Override
+	public void onWritable(Runnable callback) {
+		this.writableCallback = callback;
+	}
+
+	public void onClose(Runnable callback) {
+		this.closeCallback = callback;
+	}
+
+	@Override
+	public boolean isReady() {
+		return !closed.get() && outputStream.isReady();
+	}
+
+	@Override
+	public void write(SseFrame frame) throws IOException {
+		frame.writeTo(outputStream);
+	}
+
+	@Override
+	public void flush() throws IOException {
+		outputStream.flush();
+	}
+
+	@Override
+	public void close() {
+		if (closed.compareAndSet(false, true)) {
+			try {
+				asyncContext.complete();
+			} catch (IllegalStateException e) {
+				// 이미 컨테이너가 종료한 요청
+			}
+			closeCallback.run();
+		}
+	}
+
+	private class Writer implements WriteListener {
+		@Override
+		public void onWritePossible() {
+			writableCallback.run();
+		}
+
+		@Override
+		public void onError(Throwable throwable) {
+			close();
+		}
+	}
+
+	private class Listener implements AsyncListener {
+		@Override
+		public void onComplete(AsyncEvent event) {
+			close();
+		}
+
+		@Override
+		public void onTimeout(AsyncEvent event) {
+			close();
+		}
+
+		@Override
+		public void onError(AsyncEvent event) {
+			close();
+		}
+
+		@Override
+		public void onStartAsync(AsyncEvent event) {
+		}
+	}
+}
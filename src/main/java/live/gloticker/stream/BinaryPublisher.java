@@ -0,0 +1,232 @@
+package live.gloticker.stream;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+
+import live.gloticker.constant.MarketDataType;
+import live.gloticker.constant.StreamChannel;
+
+// WebSocket 바이너리 구독자용 발행기: 심볼은 작은 정수 id 로, 시세 스키마의 가격 필드는 숫자로 CBOR 인코딩
+// 접속 시: {"type":"hello","symbols":{0:"BTC",1:"ETH"}}
+// 메시지: {"id":<event id>,"channel":"crypto.price.stream","symbols":{2:"SOL"},"data":{0:{"current_price":97012.1}}}
+// symbols 는 해당 메시지에서 처음 등장한 심볼만 담고, 모르는 id 를 받은 클라이언트는 재접속해 hello 를 다시 받음
+public class BinaryPublisher {
+	private static final JsonFactory JSON_FACTORY = new JsonFactory();
+	private static final CBORFactory CBOR_FACTORY = new CBORFactory();
+	private static final int CBOR_BREAK = 0xFF;
+	private static final int CBOR_MAP_START = 0xBF;
+	// 숫자로 바꿔 보내는 필드, 나머지는 숫자처럼 보여도 문자열 그대로 (예: 코드, 선행 0 이 있는 값)
+	private static final Set<String> NUMERIC_FIELDS = MarketDataType.quoteFieldNames();
+	public static final SseFrame HEARTBEAT = SseFrame.binary(encode(generator -> {
+		generator.writeStartObject();
+		generator.writeStringField("type", "ping");
+		generator.writeEndObject();
+	}));
+
+	private final Map<String, Integer> symbolIds = new HashMap<>();
+	private final List<String> symbolNames = new ArrayList<>();
+	private final Set<StreamSubscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+	public boolean isEmpty() {
+		return subscribers.isEmpty();
+	}
+
+	// 발행과 등록은 StreamFanout 의 잠금으로 배타적이므로 hello 이후 메시지의 새 심볼은 빠짐없이 프레임에 실림
+	public void register(StreamSubscriber subscriber, FrameSink sink) {
+		subscribers.add(subscriber);
+		sink.accept(subscriber, "hello", hello());
+	}
+
+	public void remove(StreamSubscriber subscriber) {
+		subscribers.remove(subscriber);
+	}
+
+	public void publish(MarketMessage message, StreamChannel streamChannel, FrameSink sink) {
+		List<MarketMessage.Segment> segments = message.segments();
+		int[] ids = new int[segments.size()];
+		Map<Integer, String> introduced = intern(segments, ids);
+		// 심볼 정의가 실린 프레임은 CONFLATE 로 덮이지 않도록 별도 키로 보냄
+		String key = introduced.isEmpty() ? message.getChannel() : "symbols:" + message.getId();
+
+		byte[][] entries = new byte[segments.size()][];
+		Map<BitSet, SseFrame> frames = new HashMap<>();
+		BitSet all = new BitSet();
+		all.set(0, segments.size());
+
+		for (StreamSubscriber subscriber : subscribers) {
+			Subscription subscription = subscriber.getSubscription();
+			if (!subscription.accepts(streamChannel)) {
+				continue;
+			}
+			BitSet selected = subscription.hasSymbolFilter() ? select(segments, subscription.symbols()) : all;
+			if (selected.isEmpty()) {
+				continue;
+			}
+			SseFrame frame = frames.computeIfAbsent(selected, bits -> {
+				byte[] envelope = envelope(message, introduced);
+				ByteArrayOutputStream out = new ByteArrayOutputStream(envelope.length + 64 * bits.cardinality());
+				out.writeBytes(envelope);
+				out.write(CBOR_MAP_START);
+				for (int i = bits.nextSetBit(0); i >= 0; i = bits.nextSetBit(i + 1)) {
+					if (entries[i] == null) {
+						entries[i] = entry(message, segments.get(i), ids[i]);
+					}
+					out.writeBytes(entries[i]);
+				}
+				out.write(CBOR_BREAK);
+				out.write(CBOR_BREAK);
+				return SseFrame.binary(out.toByteArray(), message.getReceivedAt());
+			});
+			sink.accept(subscriber, key, frame);
+		}
+	}
+
+	private synchronized Map<Integer, String> intern(List<MarketMessage.Segment> segments, int[] ids) {
+		Map<Integer, String> introduced = new LinkedHashMap<>();
+		for (int i = 0; i < segments.size(); i++) {
+			String symbol = segments.get(i).symbol();
+			ids[i] = symbolIds.computeIfAbsent(symbol, name -> {
+				symbolNames.add(name);
+				introduced.put(symbolNames.size() - 1, name);
+				return symbolNames.size() - 1;
+			});
+		}
+		return introduced;
+	}
+
+	private synchronized SseFrame hello() {
+		return SseFrame.binary(encode(generator -> {
+			generator.writeStartObject();
+			generator.writeStringField("type", "hello");
+			generator.writeFieldName("symbols");
+			writeSymbols(generator, symbolNames);
+			generator.writeEndObject();
+		}));
+	}
+
+	private static BitSet select(List<MarketMessage.Segment> segments, Set<String> symbols) {
+		BitSet selected = new BitSet();
+		for (int i = 0; i < segments.size(); i++) {
+			if (symbols.contains(segments.get(i).symbol())) {
+				selected.set(i);
+			}
+		}
+		return selected;
+	}
+
+	// "data" 필드 이름까지 쓴 봉투 앞부분, 뒤에 data 맵과 두 개의 break 를 이어 붙임
+	private static byte[] envelope(MarketMessage message, Map<Integer, String> introduced) {
+		return encode(generator -> {
+			generator.writeStartObject();
+			generator.writeNumberField("id", message.getId());
+			generator.writeStringField("channel", message.getChannel());
+			if (!introduced.isEmpty()) {
+				generator.writeFieldName("symbols");
+				generator.writeStartObject();
+				for (Map.Entry<Integer, String> symbol : introduced.entrySet()) {
+					generator.writeFieldId(symbol.getKey());
+					generator.writeString(symbol.getValue());
+				}
+				generator.writeEndObject();
+			}
+			generator.writeFieldName("data");
+		});
+	}
+
+	// 심볼 하나의 <id>:<값> 쌍, 메시지당 한 번만 인코딩해 모든 슬라이스가 공유
+	private static byte[] entry(MarketMessage message, MarketMessage.Segment segment, int id) {
+		return encode(generator -> {
+			generator.writeNumber(id);
+			int length = segment.end() - segment.valueStart();
+			try (JsonParser parser = JSON_FACTORY.createParser(message.body(), segment.valueStart(), length)) {
+				copyValue(parser, generator);
+			}
+		});
+	}
+
+	// 심볼 값 객체 바로 아래의 가격 필드에 담긴 "213.49" 같은 숫자 문자열만 숫자로, 그 외 값은 그대로 옮김
+	private static void copyValue(JsonParser parser, JsonGenerator generator) throws IOException {
+		int depth = 0;
+		JsonToken token;
+		while ((token = parser.nextToken()) != null) {
+			if (token == JsonToken.VALUE_STRING && depth == 1
+				&& NUMERIC_FIELDS.contains(parser.currentName()) && isNumeric(parser.getText())) {
+				generator.writeNumber(Double.parseDouble(parser.getText()));
+			} else {
+				generator.copyCurrentEvent(parser);
+			}
+			if (token.isStructStart()) {
+				depth++;
+			} else if (token.isStructEnd()) {
+				depth--;
+			}
+			if (depth == 0) {
+				return;
+			}
+		}
+	}
+
+	private static boolean isNumeric(String text) {
+		int length = text.length();
+		int start = length > 1 && text.charAt(0) == '-' ? 1 : 0;
+		if (start == length) {
+			return false;
+		}
+		boolean dot = false;
+		for (int i = start; i < length; i++) {
+			char c = text.charAt(i);
+			if (c == '.' && !dot && i > start && i < length - 1) {
+				dot = true;
+			} else if (c < '0' || c > '9') {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	private static void writeSymbols(JsonGenerator generator, List<String> symbols) throws IOException {
+		generator.writeStartObject();
+		for (int id = 0; id < symbols.size(); id++) {
+			generator.writeFieldId(id);
+			generator.writeString(symbols.get(id));
+		}
+		generator.writeEndObject();
+	}
+
+	private static byte[] encode(Encoder encoder) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		try (JsonGenerator generator = CBOR_FACTORY.createGenerator(out)) {
+			// 봉투 앞부분처럼 열린 채로 끝나는 조각도 있으므로 닫을 때 구조를 자동으로 닫지 않음
+			generator.disable(JsonGenerator.Feature.AUTO_CLOSE_JSON_CONTENT);
+			encoder.encode(generator);
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
+		}
+		return out.toByteArray();
+	}
+
+	@FunctionalInterface
+	private interface Encoder {
+		void encode(JsonGenerator generator) throws IOException;
+	}
+
+	@FunctionalInterface
+	public interface FrameSink {
+		void accept(StreamSubscriber subscriber, String key, SseFrame frame);
+	}
+}
@@ -0,0 +1,220 @@
+package live.gloticker.stream;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+
+import live.gloticker.constant.StreamChannel;
+
+// delta 모드: 채널별로 마지막으로 보낸 상태와 seq 를 들고 있다가 바뀐 필드만 전송
+// 프레임 형식: {"seq":12,"channel":"crypto.price.stream","type":"full|delta","data":{...}}
+public class DeltaPublisher {
+	private static final String TYPE_FULL = "full";
+	private static final String TYPE_DELTA = "delta";
+	private static final JsonStringEncoder JSON_ENCODER = JsonStringEncoder.getInstance();
+
+	private final ConcurrentHashMap<String, ChannelState> states = new ConcurrentHashMap<>();
+	private final Set<StreamSubscriber> subscribers = ConcurrentHashMap.newKeySet();
+
+	public boolean isEmpty() {
+		return subscribers.isEmpty();
+	}
+
+	// 채널 잠금 안에서 full 프레임을 넣고 등록하므로 full 과 다음 delta 사이에 빈틈이나 중복이 없음
+	public void register(StreamSubscriber subscriber, BiConsumer<StreamSubscriber, SseFrame> sink) {
+		subscribers.add(subscriber);
+		states.values().forEach(state -> {
+			if (!accepts(subscriber, state)) {
+				return;
+			}
+			synchronized (state) {
+				if (state.add(subscriber)) {
+					MarketMessage full = new MarketMessage(state.channel, encode(state.symbols));
+					Set<String> symbols = subscriber.getSubscription().symbols();
+					SseFrame frame = frameFor(symbols, full, state.lastEventId, state.seq, TYPE_FULL, new HashMap<>());
+					sink.accept(subscriber, frame);
+				}
+			}
+		});
+	}
+
+	public void remove(StreamSubscriber subscriber) {
+		subscribers.remove(subscriber);
+		states.values().forEach(state -> {
+			synchronized (state) {
+				state.remove(subscriber);
+			}
+		});
+	}
+
+	// 같은 심볼 집합을 구독한 묶음마다 프레임을 한 번만 만들고, 선택이 같은 묶음끼리도 바이트를 공유
+	public void publish(MarketMessage message, BiConsumer<StreamSubscriber, SseFrame> sink) {
+		ChannelState state = states.computeIfAbsent(message.getChannel(), this::newState);
+		synchronized (state) {
+			MarketMessage delta =
+				new MarketMessage(message.getChannel(), state.apply(message), message.getReceivedAt());
+			state.seq++;
+			state.lastEventId = message.getId();
+			// 처음 보는 채널의 첫 메시지는 이전 상태가 없으므로 그 자체가 full
+			String type = state.seq == 1 ? TYPE_FULL : TYPE_DELTA;
+
+			Map<BitSet, SseFrame> frames = new HashMap<>();
+			state.groups.forEach((symbols, group) -> {
+				SseFrame frame = frameFor(symbols, delta, state.lastEventId, state.seq, type, frames);
+				group.forEach(subscriber -> sink.accept(subscriber, frame));
+			});
+		}
+	}
+
+	private ChannelState newState(String channel) {
+		ChannelState state = new ChannelState(channel);
+		synchronized (state) {
+			subscribers.stream()
+				.filter(subscriber -> accepts(subscriber, state))
+				.forEach(state::add);
+		}
+		return state;
+	}
+
+	private static boolean accepts(StreamSubscriber subscriber, ChannelState state) {
+		return subscriber.getSubscription().accepts(state.streamChannel);
+	}
+
+	// symbols 가 비어 있으면 메시지 전체
+	private static SseFrame frameFor(
+		Set<String> symbols,
+		MarketMessage message,
+		long eventId,
+		long seq,
+		String type,
+		Map<BitSet, SseFrame> frames) {
+		BitSet selected = new BitSet();
+		List<MarketMessage.Segment> segments = message.segments();
+		for (int i = 0; i < segments.size(); i++) {
+			if (symbols.isEmpty() || symbols.contains(segments.get(i).symbol())) {
+				selected.set(i);
+			}
+		}
+		return frames.computeIfAbsent(selected, key -> SseFrame.data(
+			eventId, envelope(seq, message.getChannel(), type, message.slice(key)), message.getReceivedAt()));
+	}
+
+	private static byte[] envelope(long seq, String channel, String type, byte[] data) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream(data.length + 64);
+		writeRaw(out, "{\"seq\":" + seq + ",\"channel\":");
+		writeString(out, channel);
+		writeRaw(out, ",\"type\":\"" + type + "\",\"data\":");
+		out.writeBytes(data);
+		out.write('}');
+		return out.toByteArray();
+	}
+
+	private static byte[] encode(Map<String, Map<String, String>> symbols) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		out.write('{');
+		symbols.forEach((symbol, fields) -> {
+			if (out.size() > 1) {
+				out.write(',');
+			}
+			writeString(out, symbol);
+			out.write(':');
+			writeFields(out, fields);
+		});
+		out.write('}');
+		return out.toByteArray();
+	}
+
+	private static void writeFields(ByteArrayOutputStream out, Map<String, String> fields) {
+		out.write('{');
+		boolean first = true;
+		for (Map.Entry<String, String> field : fields.entrySet()) {
+			if (!first) {
+				out.write(',');
+			}
+			first = false;
+			writeString(out, field.getKey());
+			out.write(':');
+			writeRaw(out, field.getValue());
+		}
+		out.write('}');
+	}
+
+	private static void writeString(ByteArrayOutputStream out, String value) {
+		out.write('"');
+		out.writeBytes(JSON_ENCODER.quoteAsUTF8(value));
+		out.write('"');
+	}
+
+	private static void writeRaw(ByteArrayOutputStream out, String value) {
+		out.writeBytes(value.getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static final class ChannelState {
+		private final String channel;
+		private final StreamChannel streamChannel;
+		private final Map<String, Map<String, String>> symbols = new LinkedHashMap<>();
+		// 구독 심볼 집합 -> 구독자, 채널 잠금 안에서만 읽고 씀
+		private final Map<Set<String>, Set<StreamSubscriber>> groups = new HashMap<>();
+		private long seq;
+		private long lastEventId;
+
+		private ChannelState(String channel) {
+			this.channel = channel;
+			this.streamChannel = StreamChannel.fromChannel(channel)
+				.filter(StreamChannel::isConcrete)
+				.orElse(null);
+		}
+
+		private boolean add(StreamSubscriber subscriber) {
+			return groups.computeIfAbsent(subscriber.getSubscription().symbols(), key -> new HashSet<>())
+				.add(subscriber);
+		}
+
+		private void remove(StreamSubscriber subscriber) {
+			groups.computeIfPresent(subscriber.getSubscription().symbols(), (key, group) -> {
+				group.remove(subscriber);
+				return group.isEmpty() ? null : group;
+			});
+		}
+
+		// 상태를 갱신하면서 바뀐 필드만 담은 {"SYMBOL":{...}} 본문을 만듦
+		private byte[] apply(MarketMessage message) {
+			ByteArrayOutputStream out = new ByteArrayOutputStream();
+			out.write('{');
+			for (MarketMessage.Segment segment : message.segments()) {
+				Map<String, String> fields = message.fields(segment);
+				if (fields == null) {
+					continue;
+				}
+				Map<String, String> previous = symbols.computeIfAbsent(segment.symbol(), key -> new LinkedHashMap<>());
+				Map<String, String> changed = new LinkedHashMap<>();
+				fields.forEach((name, value) -> {
+					if (!value.equals(previous.put(name, value))) {
+						changed.put(name, value);
+					}
+				});
+				if (changed.isEmpty()) {
+					continue;
+				}
+				if (out.size() > 1) {
+					out.write(',');
+				}
+				writeString(out, segment.symbol());
+				out.write(':');
+				writeFields(out, changed);
+			}
+			out.write('}');
+			return out.toByteArray();
+		}
+	}
+}
@@ -0,0 +1,32 @@
+package live.gloticker.stream;
+
+import java.io.IOException;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import lombok.RequiredArgsConstructor;
+
+@RequiredArgsConstructor
+public class EmitterConnection implements SseConnection {
+	private final SseEmitter emitter;
+
+	@Override
+	public boolean isReady() {
+		return true;
+	}
+
+	// SseEmitter 는 send 마다 flush 까지 수행함
+	@Override
+	public void write(SseFrame frame) throws IOException {
+		emitter.send(frame.items());
+	}
+
+	@Override
+	public void flush() {
+	}
+
+	@Override
+	public void close() {
+		emitter.complete();
+	}
+}
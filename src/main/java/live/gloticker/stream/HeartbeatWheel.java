@@ -0,0 +1,93 @@
+package live.gloticker.stream;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+// 구독자별 heartbeat/만료 확인 시각을 담는 해시 타이밍 휠
+// tick 마다 슬롯 하나만 훑으므로 구독자 전체를 도는 대신 확인 시각이 된 구독자만 처리함
+// 데이터를 보낼 때마다 휠을 건드리지 않고, 만기된 항목이 마지막 전송 시각을 보고 다음 확인 시각을 정함
+public class HeartbeatWheel {
+	private final long startNanos;
+	private final long tickNanos;
+	private final int mask;
+	private final ArrayDeque<Entry>[] slots;
+	// 다른 스레드에서 추가한 항목, 휠은 tick 스레드만 만짐
+	private final Queue<Entry> added = new ConcurrentLinkedQueue<>();
+	private long currentTick;
+
+	@SuppressWarnings("unchecked")
+	public HeartbeatWheel(long tickNanos, int wheelSize) {
+		if (Integer.bitCount(wheelSize) != 1) {
+			throw new IllegalArgumentException("Wheel size must be a power of two: " + wheelSize);
+		}
+		this.startNanos = System.nanoTime();
+		this.tickNanos = tickNanos;
+		this.mask = wheelSize - 1;
+		this.slots = new ArrayDeque[wheelSize];
+		for (int i = 0; i < wheelSize; i++) {
+			slots[i] = new ArrayDeque<>();
+		}
+	}
+
+	public void schedule(StreamSubscriber subscriber, long deadlineNanos) {
+		added.add(new Entry(subscriber, tickOf(deadlineNanos)));
+	}
+
+	// now 까지 지난 tick 의 슬롯을 처리, expiry 가 돌려준 다음 확인 시각이 0 이하면 휠에서 뺌
+	public void advance(long now, Expiry expiry) {
+		long targetTick = (now - startNanos) / tickNanos;
+		List<Entry> rescheduled = new ArrayList<>();
+		while (currentTick <= targetTick) {
+			Entry entry;
+			while ((entry = added.poll()) != null) {
+				place(entry);
+			}
+
+			ArrayDeque<Entry> slot = slots[(int)(currentTick & mask)];
+			for (int remaining = slot.size(); remaining > 0; remaining--) {
+				entry = slot.pollFirst();
+				if (entry.tick > currentTick) {
+					slot.addLast(entry);
+					continue;
+				}
+				long next = expiry.expire(entry.subscriber, now);
+				if (next > 0) {
+					entry.tick = tickOf(next);
+					rescheduled.add(entry);
+				}
+			}
+			// 같은 슬롯으로 돌아오는 항목이 이번 순회에 다시 잡히지 않도록 순회가 끝난 뒤 넣음
+			rescheduled.forEach(this::place);
+			rescheduled.clear();
+			currentTick++;
+		}
+	}
+
+	private void place(Entry entry) {
+		entry.tick = Math.max(entry.tick, currentTick + 1);
+		slots[(int)(entry.tick & mask)].addLast(entry);
+	}
+
+	// 확인 시각을 올림한 tick, 예정보다 일찍 깨지 않음
+	private long tickOf(long deadlineNanos) {
+		return Math.max(0, (deadlineNanos - startNanos + tickNanos - 1) / tickNanos);
+	}
+
+	@FunctionalInterface
+	public interface Expiry {
+		long expire(StreamSubscriber subscriber, long now);
+	}
+
+	private static final class Entry {
+		private final StreamSubscriber subscriber;
+		private long tick;
+
+		private Entry(StreamSubscriber subscriber, long tick) {
+			this.subscriber = subscriber;
+			this.tick = tick;
+		}
+	}
+}
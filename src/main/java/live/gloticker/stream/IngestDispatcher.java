@@ -0,0 +1,144 @@
+package live.gloticker.stream;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.RejectedExecutionHandler;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import live.gloticker.constant.IngestOverflowPolicy;
+import live.gloticker.constant.IngestSource;
+import lombok.extern.slf4j.Slf4j;
+
+// Redis 구독 메시지를 고정 개수의 lane 으로 넘기는 단계
+// 같은 채널은 항상 같은 lane(단일 스레드 + 고정 크기 큐)에서 처리되므로 채널 안의 순서가 유지됨
+@Slf4j
+@Component
+public class IngestDispatcher {
+	private final ThreadPoolExecutor[] lanes;
+	private final IngestOverflowPolicy overflowPolicy;
+	private final long blockTimeoutNanos;
+
+	private final Counter droppedMessages;
+	private final Counter blockedMessages;
+
+	public IngestDispatcher(
+		MeterRegistry meterRegistry,
+		@Value("${stream.ingest.worker-threads:4}") int workerThreads,
+		@Value("${stream.ingest.queue-capacity:256}") int queueCapacity,
+		@Value("${stream.ingest.source:PUBSUB}") IngestSource source,
+		@Value("${stream.ingest.overflow-policy:DROP_OLDEST}") IngestOverflowPolicy overflowPolicy,
+		@Value("${stream.ingest.block-timeout:1s}") Duration blockTimeout) {
+		this.overflowPolicy = effectivePolicy(source, overflowPolicy);
+		this.blockTimeoutNanos = blockTimeout.toNanos();
+		this.lanes = new ThreadPoolExecutor[workerThreads];
+		for (int i = 0; i < workerThreads; i++) {
+			lanes[i] = newLane(i, queueCapacity);
+		}
+
+		this.droppedMessages = Counter.builder("stream.ingest.dropped")
+			.tag("policy", this.overflowPolicy.name())
+			.register(meterRegistry);
+		this.blockedMessages = Counter.builder("stream.ingest.blocked")
+			.description("Messages that waited for a free ingest queue slot")
+			.register(meterRegistry);
+		Gauge.builder("stream.ingest.queue.depth", this, IngestDispatcher::queueDepth)
+			.register(meterRegistry);
+		Gauge.builder("stream.ingest.queue.depth.max", this, IngestDispatcher::maxQueueDepth)
+			.register(meterRegistry);
+	}
+
+	// pub/sub 은 Lettuce 이벤트 루프 스레드에서 전달되므로 기다리면 그 연결의 다른 구독과 명령까지 멈춤 -> DROP_OLDEST
+	// STREAMS 는 처리한 id 를 offset 으로 저장하므로 하나라도 버리면 뒤 레코드의 offset 이 그 자리를 넘어가 영영 잃음 -> BLOCK
+	private static IngestOverflowPolicy effectivePolicy(IngestSource source, IngestOverflowPolicy policy) {
+		IngestOverflowPolicy effective = source == IngestSource.STREAMS
+			? IngestOverflowPolicy.BLOCK
+			: IngestOverflowPolicy.DROP_OLDEST;
+		if (policy != effective) {
+			log.warn("stream.ingest.overflow-policy={} is not supported with stream.ingest.source={}, using {}",
+				policy, source, effective);
+		}
+		return effective;
+	}
+
+	public void dispatch(String channel, Runnable task) {
+		lanes[Math.floorMod(channel.hashCode(), lanes.length)].execute(task);
+	}
+
+	private ThreadPoolExecutor newLane(int index, int queueCapacity) {
+		return new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+			new ArrayBlockingQueue<>(queueCapacity),
+			runnable -> {
+				Thread thread = new Thread(runnable, "ingest-" + index);
+				thread.setDaemon(true);
+				return thread;
+			},
+			new OverflowHandler());
+	}
+
+	private double queueDepth() {
+		return Arrays.stream(lanes)
+			.mapToInt(lane -> lane.getQueue().size())
+			.sum();
+	}
+
+	private double maxQueueDepth() {
+		return Arrays.stream(lanes)
+			.mapToInt(lane -> lane.getQueue().size())
+			.max()
+			.orElse(0);
+	}
+
+	@PreDestroy
+	private void shutdown() throws InterruptedException {
+		for (ThreadPoolExecutor lane : lanes) {
+			lane.shutdown();
+		}
+		for (ThreadPoolExecutor lane : lanes) {
+			lane.awaitTermination(1, TimeUnit.SECONDS);
+		}
+	}
+
+	private class OverflowHandler implements RejectedExecutionHandler {
+		@Override
+		public void rejectedExecution(Runnable task, ThreadPoolExecutor lane) {
+			if (lane.isShutdown()) {
+				return;
+			}
+			if (overflowPolicy == IngestOverflowPolicy.BLOCK) {
+				block(task, lane);
+				return;
+			}
+			lane.getQueue().poll();
+			lane.execute(task);
+			droppedMessages.increment();
+		}
+
+		// 자리가 날 때까지 읽기 스레드를 잡아 둠, 버리지 않으므로 block-timeout 마다 종료 여부만 확인하고 경고
+		// 종료 중이면 넣지 않고 돌아감, 처리하지 않은 레코드는 offset 이 저장되지 않아 재시작 후 다시 읽음
+		private void block(Runnable task, ThreadPoolExecutor lane) {
+			blockedMessages.increment();
+			try {
+				while (!lane.getQueue().offer(task, blockTimeoutNanos, TimeUnit.NANOSECONDS)) {
+					if (lane.isShutdown()) {
+						return;
+					}
+					log.warn("Ingest queue is still full after {} ms, the stream reader keeps waiting",
+						TimeUnit.NANOSECONDS.toMillis(blockTimeoutNanos));
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				throw new RejectedExecutionException("Interrupted while waiting for ingest queue", e);
+			}
+		}
+	}
+}
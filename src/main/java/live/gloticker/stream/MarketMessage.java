@@ -0,0 +1,143 @@
+package live.gloticker.stream;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+
+import lombok.Getter;
+
+// Redis 로 받은 {"SYMBOL": {...}, ...} 메시지 원본과, 심볼별 바이트 구간
+public class MarketMessage {
+	private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+	@Getter
+	private final String channel;
+	private final byte[] body;
+	// Redis 에서 받은 시각(nanoTime), 수신 메시지가 아니라 내부에서 만든 메시지는 0
+	@Getter
+	private final long receivedAt;
+	@Getter
+	private long id;
+	private List<Segment> segments;
+
+	public MarketMessage(String channel, byte[] body) {
+		this(channel, body, 0);
+	}
+
+	public MarketMessage(String channel, byte[] body, long receivedAt) {
+		this.channel = channel;
+		this.body = body;
+		this.receivedAt = receivedAt;
+	}
+
+	void assignId(long id) {
+		this.id = id;
+	}
+
+	public byte[] body() {
+		return body;
+	}
+
+	// 필요할 때만 한 번 스캔, 심볼 필터 구독자가 없으면 파싱하지 않음
+	public synchronized List<Segment> segments() {
+		if (segments == null) {
+			segments = scan(body);
+		}
+		return segments;
+	}
+
+	// 선택된 심볼 구간만 이어 붙여 {"A":{...},"B":{...}} 를 만듦, 값은 재직렬화하지 않음
+	public byte[] slice(BitSet selected) {
+		List<Segment> all = segments();
+		int length = 2 + Math.max(0, selected.cardinality() - 1);
+		for (int i = selected.nextSetBit(0); i >= 0; i = selected.nextSetBit(i + 1)) {
+			length += all.get(i).length();
+		}
+
+		byte[] sliced = new byte[length];
+		int position = 0;
+		sliced[position++] = '{';
+		for (int i = selected.nextSetBit(0); i >= 0; i = selected.nextSetBit(i + 1)) {
+			if (position > 1) {
+				sliced[position++] = ',';
+			}
+			Segment segment = all.get(i);
+			System.arraycopy(body, segment.start(), sliced, position, segment.length());
+			position += segment.length();
+		}
+		sliced[position] = '}';
+		return sliced;
+	}
+
+	// "SYMBOL":{...} 형태의 원본 구간 문자열
+	public String entry(Segment segment) {
+		return new String(body, segment.start(), segment.length(), StandardCharsets.UTF_8);
+	}
+
+	// 심볼 값이 객체면 필드명 -> 원본 JSON 값(따옴표 포함) 으로 풀어줌, 객체가 아니면 null
+	public Map<String, String> fields(Segment segment) {
+		int length = segment.end() - segment.valueStart();
+		try (JsonParser parser = JSON_FACTORY.createParser(body, segment.valueStart(), length)) {
+			if (parser.nextToken() != JsonToken.START_OBJECT) {
+				return null;
+			}
+			Map<String, String> fields = new LinkedHashMap<>();
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				String name = parser.currentName();
+				parser.nextToken();
+				int start = (int)parser.currentTokenLocation().getByteOffset();
+				skipValue(parser);
+				int end = (int)parser.currentLocation().getByteOffset();
+				fields.put(name, new String(body, segment.valueStart() + start, end - start, StandardCharsets.UTF_8));
+			}
+			return fields;
+		} catch (IOException e) {
+			return null;
+		}
+	}
+
+	private static void skipValue(JsonParser parser) throws IOException {
+		if (parser.currentToken().isStructStart()) {
+			parser.skipChildren();
+		} else {
+			parser.finishToken();
+		}
+	}
+
+	private static List<Segment> scan(byte[] body) {
+		List<Segment> result = new ArrayList<>();
+		try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+			if (parser.nextToken() != JsonToken.START_OBJECT) {
+				return Collections.emptyList();
+			}
+			while (parser.nextToken() == JsonToken.FIELD_NAME) {
+				String symbol = parser.currentName();
+				int start = (int)parser.currentTokenLocation().getByteOffset();
+				parser.nextToken();
+				int valueStart = (int)parser.currentTokenLocation().getByteOffset();
+				skipValue(parser);
+				int end = (int)parser.currentLocation().getByteOffset();
+				result.add(new Segment(symbol, start, valueStart, end));
+			}
+		} catch (IOException e) {
+			return Collections.emptyList();
+		}
+		return result;
+	}
+
+	// start 는 심볼 키의 여는 따옴표, valueStart 는 값의 시작, end 는 값의 끝 다음 위치
+	public record Segment(String symbol, int start, int valueStart, int end) {
+		int length() {
+			return end - start;
+		}
+	}
+}
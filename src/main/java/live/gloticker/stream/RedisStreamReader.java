@@ -0,0 +1,226 @@
+package live.gloticker.stream;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Range;
+import org.springframework.data.redis.connection.Limit;
+import org.springframework.data.redis.connection.RedisConnection;
+import org.springframework.data.redis.connection.stream.ByteRecord;
+import org.springframework.data.redis.connection.stream.ReadOffset;
+import org.springframework.data.redis.connection.stream.StreamOffset;
+import org.springframework.data.redis.connection.stream.StreamReadOptions;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import live.gloticker.constant.StreamChannel;
+import lombok.extern.slf4j.Slf4j;
+
+// stream.ingest.source=STREAMS 일 때 pub/sub 대신 쓰는 수집기
+// 채널 이름과 같은 키의 Redis Stream 들을 XREAD BLOCK COUNT 한 번으로 묶어 읽음
+// 처리가 끝난 id 는 commit-interval 마다 offset-key 해시에 저장하고, 재시작하면 그 다음 id 부터 읽음
+// 읽기 스레드는 연결 하나를 계속 잡고 씀, 템플릿으로 매번 빌리면 BLOCK 명령마다 전용 연결을 새로 열고 닫음
+@Slf4j
+@Component
+public class RedisStreamReader {
+	private static final String FIRST_ID = "0-0";
+
+	private final StringRedisTemplate redisTemplate;
+	private final String offsetKey;
+	private final byte[] field;
+	private final StreamReadOptions readOptions;
+	private final Duration blockTimeout;
+	private final Duration retryDelay;
+	private final DistributionSummary batchSizes;
+
+	// 읽기 스레드만 쓰는 마지막으로 읽은 id, 끊겼다 다시 붙어도 여기서 이어 읽음
+	private final Map<String, String> readOffsets = new LinkedHashMap<>();
+	// lane 에서 처리를 마쳤지만 아직 저장하지 않은 id
+	private final Map<String, String> pendingOffsets = new ConcurrentHashMap<>();
+	private volatile boolean running;
+	private Thread thread;
+
+	public RedisStreamReader(
+		StringRedisTemplate redisTemplate,
+		MeterRegistry meterRegistry,
+		@Value("${stream.ingest.streams.offset-key:ingest:offset}") String offsetKey,
+		@Value("${stream.ingest.streams.field:data}") String field,
+		@Value("${stream.ingest.streams.batch-size:100}") long batchSize,
+		@Value("${stream.ingest.streams.block-timeout:1s}") Duration blockTimeout,
+		@Value("${stream.ingest.streams.retry-delay:1s}") Duration retryDelay) {
+		this.redisTemplate = redisTemplate;
+		this.offsetKey = offsetKey;
+		this.field = field.getBytes(StandardCharsets.UTF_8);
+		this.readOptions = StreamReadOptions.empty().block(blockTimeout).count(batchSize);
+		this.blockTimeout = blockTimeout;
+		this.retryDelay = retryDelay;
+		this.batchSizes = DistributionSummary.builder("stream.ingest.read.batch")
+			.description("Records returned by one XREAD call")
+			.register(meterRegistry);
+	}
+
+	public synchronized void start(RecordHandler handler) {
+		if (running) {
+			return;
+		}
+		running = true;
+		thread = new Thread(() -> run(handler), "ingest-reader");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	// lane 에서 레코드 처리를 마친 뒤 호출, 같은 채널은 한 lane 에서 순서대로 처리되므로 id 는 증가만 함
+	public void commit(String channel, String id) {
+		pendingOffsets.put(channel, id);
+	}
+
+	@Scheduled(fixedDelayString = "${stream.ingest.streams.commit-interval:1s}")
+	public void flush() {
+		if (pendingOffsets.isEmpty()) {
+			return;
+		}
+		Map<String, String> offsets = new HashMap<>();
+		for (String channel : pendingOffsets.keySet()) {
+			String id = pendingOffsets.remove(channel);
+			if (id != null) {
+				offsets.put(channel, id);
+			}
+		}
+		try {
+			redisTemplate.opsForHash().putAll(offsetKey, offsets);
+		} catch (Exception e) {
+			log.warn("Failed to save ingest offsets: {}", e.getMessage());
+			offsets.forEach(pendingOffsets::putIfAbsent);
+		}
+	}
+
+	@PreDestroy
+	private void stop() throws InterruptedException {
+		running = false;
+		if (thread != null) {
+			// 진행 중인 XREAD 는 block-timeout 안에 돌아옴
+			thread.join(blockTimeout.toMillis() * 2);
+		}
+		flush();
+	}
+
+	private void run(RecordHandler handler) {
+		RedisConnection connection = null;
+		try {
+			while (running) {
+				try {
+					if (connection == null) {
+						connection = redisTemplate.getRequiredConnectionFactory().getConnection();
+					}
+					if (readOffsets.isEmpty()) {
+						readOffsets.putAll(loadOffsets(connection));
+						log.info("Reading Redis streams from {}", readOffsets);
+					}
+					read(connection, handler);
+				} catch (Exception e) {
+					// 끊긴 연결은 버리고 다음 반복에서 새로 엶
+					close(connection);
+					connection = null;
+					if (!running) {
+						return;
+					}
+					log.warn("Failed to read Redis streams, retrying in {}: {}", retryDelay, e.getMessage());
+					sleep(retryDelay);
+				}
+			}
+		} finally {
+			close(connection);
+		}
+	}
+
+	private void read(RedisConnection connection, RecordHandler handler) {
+		List<ByteRecord> records = connection.streamCommands().xRead(readOptions, streamOffsets());
+		if (records == null || records.isEmpty()) {
+			return;
+		}
+		batchSizes.record(records.size());
+
+		for (ByteRecord record : records) {
+			String channel = new String(record.getStream(), StandardCharsets.UTF_8);
+			String id = record.getId().getValue();
+			readOffsets.put(channel, id);
+			byte[] body = value(record);
+			if (body == null) {
+				log.debug("Skipped record {} on {} without the configured field", id, channel);
+				continue;
+			}
+			handler.handle(channel, id, body);
+		}
+	}
+
+	@SuppressWarnings("unchecked")
+	private StreamOffset<byte[]>[] streamOffsets() {
+		return readOffsets.entrySet().stream()
+			.map(offset -> StreamOffset.create(
+				offset.getKey().getBytes(StandardCharsets.UTF_8), ReadOffset.from(offset.getValue())))
+			.toArray(StreamOffset[]::new);
+	}
+
+	// 저장된 id 가 없는 채널은 지금 마지막 id 부터, 스트림이 아직 없으면 처음부터 읽음
+	// "$" 를 쓰면 첫 XREAD 전에 들어온 레코드를 놓칠 수 있으므로 실제 id 로 고정
+	private Map<String, String> loadOffsets(RedisConnection connection) {
+		Map<Object, Object> saved = redisTemplate.opsForHash().entries(offsetKey);
+		Map<String, String> offsets = new LinkedHashMap<>();
+		for (StreamChannel streamChannel : StreamChannel.concreteChannels()) {
+			String channel = streamChannel.getChannel();
+			Object id = saved.get(channel);
+			offsets.put(channel, id != null ? id.toString() : lastId(connection, channel));
+		}
+		return offsets;
+	}
+
+	private static String lastId(RedisConnection connection, String channel) {
+		List<ByteRecord> last = connection.streamCommands().xRevRange(
+			channel.getBytes(StandardCharsets.UTF_8), Range.unbounded(), Limit.limit().count(1));
+		return last == null || last.isEmpty() ? FIRST_ID : last.get(0).getId().getValue();
+	}
+
+	private byte[] value(ByteRecord record) {
+		for (Map.Entry<byte[], byte[]> entry : record.getValue().entrySet()) {
+			if (Arrays.equals(entry.getKey(), field)) {
+				return entry.getValue();
+			}
+		}
+		return null;
+	}
+
+	private static void close(RedisConnection connection) {
+		if (connection == null) {
+			return;
+		}
+		try {
+			connection.close();
+		} catch (Exception e) {
+			log.debug("Failed to close the ingest reader connection: {}", e.getMessage());
+		}
+	}
+
+	private static void sleep(Duration delay) {
+		try {
+			Thread.sleep(delay.toMillis());
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	@FunctionalInterface
+	public interface RecordHandler {
+		void handle(String channel, String id, byte[] body);
+	}
+}
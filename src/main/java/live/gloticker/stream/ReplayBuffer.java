@@ -0,0 +1,75 @@
+package live.gloticker.stream;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+
+// 최근 브로드캐스트 메시지를 id 순서로 보관하는 고정 크기 링 버퍼, Last-Event-ID 재전송용
+// id 는 상위 16비트가 이 버퍼의 tag, 하위 37비트가 순번이라 2^53 미만으로 CBOR/JS 숫자에 그대로 들어감
+// 다른 노드나 재시작 전 프로세스가 준 id 는 tag 가 달라 범위 밖으로 보고 snapshot 을 보냄
+public class ReplayBuffer {
+	static final int SEQUENCE_BITS = 37;
+	private static final int TAG_LIMIT = 1 << 16;
+
+	private final MarketMessage[] slots;
+	private final long firstId;
+	private long nextId;
+	private long oldestId;
+
+	public ReplayBuffer(int capacity) {
+		this(capacity, ThreadLocalRandom.current().nextInt(1, TAG_LIMIT));
+	}
+
+	ReplayBuffer(int capacity, int tag) {
+		this.slots = new MarketMessage[capacity];
+		this.firstId = (long)tag << SEQUENCE_BITS;
+		this.nextId = firstId;
+		this.oldestId = firstId;
+	}
+
+	public synchronized long append(MarketMessage message) {
+		long id = nextId++;
+		message.assignId(id);
+		slots[index(id)] = message;
+		if (id - oldestId >= slots.length) {
+			oldestId = id - slots.length + 1;
+		}
+		return id;
+	}
+
+	// lastEventId 이후 메시지 목록, 버퍼 범위를 벗어났으면 empty
+	public synchronized Optional<List<MarketMessage>> since(long lastEventId) {
+		if (!covers(lastEventId)) {
+			return Optional.empty();
+		}
+		List<MarketMessage> missed = new ArrayList<>((int)(nextId - 1 - lastEventId));
+		for (long id = lastEventId + 1; id < nextId; id++) {
+			missed.add(slots[index(id)]);
+		}
+		return Optional.of(missed);
+	}
+
+	// since 가 maxMessages 개 이하를 돌려줄 수 있는지, 목록을 만들지 않고 확인
+	public synchronized boolean canReplay(long lastEventId, int maxMessages) {
+		return covers(lastEventId) && nextId - 1 - lastEventId <= maxMessages;
+	}
+
+	// 마지막으로 발행된 메시지 id, 아직 없으면 empty
+	public synchronized Optional<Long> lastId() {
+		return nextId == firstId ? Optional.empty() : Optional.of(nextId - 1);
+	}
+
+	private boolean covers(long lastEventId) {
+		return ownsId(lastEventId) && lastEventId >= oldestId - 1 && lastEventId < nextId;
+	}
+
+	// 순번이 2^37 을 넘기면 (초당 1만 건이면 약 159일) tag 가 바뀐 것처럼 보여 재전송 대신 snapshot 을 보냄
+	private boolean ownsId(long id) {
+		return id >>> SEQUENCE_BITS == firstId >>> SEQUENCE_BITS;
+	}
+
+	private int index(long id) {
+		return (int)(id % slots.length);
+	}
+}
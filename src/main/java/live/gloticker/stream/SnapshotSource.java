@@ -0,0 +1,10 @@
+package live.gloticker.stream;
+
+// 새 구독자에게 첫 이벤트로 보내는 심볼별 최신 값의 원본
+// StreamFanout 이 id 를 부여하기 전에 갱신하므로 마지막 발행 id 를 읽은 뒤 인코딩한 값에는 그 id 까지가 모두 들어 있음
+public interface SnapshotSource {
+	void apply(MarketMessage message);
+
+	// 구독 조건에 맞는 심볼을 모두 모은 {"SYM":{...},...}, 보낼 값이 없으면 null
+	byte[] encode(Subscription subscription);
+}
@@ -0,0 +1,26 @@
+package live.gloticker.stream;
+
+import java.io.IOException;
+import java.util.List;
+
+// 구독자 큐가 프레임을 내보내는 대상, 엔진(SseEmitter / 비동기 서블릿)마다 구현이 다름
+public interface SseConnection {
+
+	// false 면 지금 쓰면 블로킹되므로 drain 을 멈추고 쓰기 가능 콜백을 기다림
+	boolean isReady();
+
+	void write(SseFrame frame) throws IOException;
+
+	// SSE 이벤트는 이어 붙여도 경계가 유지되므로 기본은 한 번의 write 로 보냄
+	default void write(List<SseFrame> frames) throws IOException {
+		write(SseFrame.concat(frames));
+	}
+
+	void flush() throws IOException;
+
+	void close();
+
+	// isReady 가 false 였던 연결이 다시 쓸 수 있게 되면 호출할 콜백
+	default void onWritable(Runnable callback) {
+	}
+}
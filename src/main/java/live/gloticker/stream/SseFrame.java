@@ -0,0 +1,129 @@
+package live.gloticker.stream;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Set;
+
+import org.springframework.http.MediaType;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+
+// 메시지당 한 번만 인코딩한 SSE 프레임, 모든 구독자가 같은 바이트를 그대로 씀
+// WebSocket 바이너리 프레임도 같은 타입으로 구독자 큐를 거침
+public final class SseFrame {
+	private static final byte[] DATA_PREFIX = "data:".getBytes(StandardCharsets.US_ASCII);
+	private static final byte[] NO_ID = new byte[0];
+	private static final byte LINE_FEED = '\n';
+
+	private final byte[] bytes;
+	private final Set<DataWithMediaType> items;
+	// 이 프레임의 메시지를 Redis 에서 받은 시각(nanoTime), 실시간 메시지 프레임만 가지고 나머지는 0
+	private final long receivedAt;
+
+	private SseFrame(byte[] bytes) {
+		this(bytes, 0);
+	}
+
+	private SseFrame(byte[] bytes, long receivedAt) {
+		this.bytes = bytes;
+		this.items = Set.of(new DataWithMediaType(bytes, MediaType.APPLICATION_OCTET_STREAM));
+		this.receivedAt = receivedAt;
+	}
+
+	public static SseFrame data(String payload) {
+		return data(payload.getBytes(StandardCharsets.UTF_8));
+	}
+
+	public static SseFrame data(byte[] payload) {
+		return encode(NO_ID, payload, 0);
+	}
+
+	// 재연결 시 Last-Event-ID 로 돌아오도록 id: 줄을 함께 인코딩
+	public static SseFrame data(long id, byte[] payload) {
+		return data(id, payload, 0);
+	}
+
+	public static SseFrame data(long id, byte[] payload, long receivedAt) {
+		return encode(("id:" + id + "\n").getBytes(StandardCharsets.US_ASCII), payload, receivedAt);
+	}
+
+	public static SseFrame comment(String comment) {
+		return new SseFrame((":" + comment + "\n\n").getBytes(StandardCharsets.UTF_8));
+	}
+
+	// 여러 이벤트를 이어 붙여 한 번의 write 로 보냄, 클라이언트에는 각각의 이벤트로 보임
+	public static SseFrame concat(List<SseFrame> frames) {
+		if (frames.size() == 1) {
+			return frames.get(0);
+		}
+		int length = 0;
+		for (SseFrame frame : frames) {
+			length += frame.bytes.length;
+		}
+		byte[] joined = new byte[length];
+		int position = 0;
+		for (SseFrame frame : frames) {
+			position = append(joined, position, frame.bytes);
+		}
+		return new SseFrame(joined);
+	}
+
+	public static SseFrame binary(byte[] bytes) {
+		return new SseFrame(bytes);
+	}
+
+	public static SseFrame binary(byte[] bytes, long receivedAt) {
+		return new SseFrame(bytes, receivedAt);
+	}
+
+	private static SseFrame encode(byte[] idLine, byte[] payload, long receivedAt) {
+		int lineBreaks = 0;
+		for (byte b : payload) {
+			if (b == LINE_FEED) {
+				lineBreaks++;
+			}
+		}
+
+		byte[] frame = new byte[idLine.length + DATA_PREFIX.length * (lineBreaks + 1) + payload.length + 2];
+		int position = append(frame, 0, idLine);
+		position = append(frame, position, DATA_PREFIX);
+		for (byte b : payload) {
+			frame[position++] = b;
+			// 여러 줄 payload는 줄마다 data: 를 붙여야 하나의 이벤트로 전달됨
+			if (b == LINE_FEED) {
+				position = append(frame, position, DATA_PREFIX);
+			}
+		}
+		frame[position++] = LINE_FEED;
+		frame[position] = LINE_FEED;
+		return new SseFrame(frame, receivedAt);
+	}
+
+	private static int append(byte[] target, int position, byte[] source) {
+		System.arraycopy(source, 0, target, position, source.length);
+		return position + source.length;
+	}
+
+	public int length() {
+		return bytes.length;
+	}
+
+	public long receivedAt() {
+		return receivedAt;
+	}
+
+	// SseEmitter 에 그대로 넘기면 ByteArrayHttpMessageConverter 가 변환 없이 기록함
+	public Set<DataWithMediaType> items() {
+		return items;
+	}
+
+	public ByteBuffer buffer() {
+		return ByteBuffer.wrap(bytes).asReadOnlyBuffer();
+	}
+
+	public void writeTo(OutputStream outputStream) throws IOException {
+		outputStream.write(bytes);
+	}
+}
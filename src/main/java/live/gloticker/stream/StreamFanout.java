@@ -0,0 +1,583 @@
+package live.gloticker.stream;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import live.gloticker.constant.OverflowPolicy;
+import live.gloticker.constant.StreamChannel;
+import live.gloticker.constant.StreamFormat;
+import live.gloticker.constant.StreamMode;
+import lombok.extern.slf4j.Slf4j;
+
+@Slf4j
+@Component
+public class StreamFanout {
+	private static final int MAX_FRAMES_PER_DRAIN = 32;
+	// delta 프레임은 합치면 안 되므로 채널과 무관하게 같은 키를 씀 (CONFLATE 시 seq 빈틈으로 재동기화)
+	private static final String DELTA_KEY = "delta";
+	private static final String SNAPSHOT_KEY = "snapshot";
+	private static final String HEARTBEAT_KEY = "heartbeat";
+	private static final DateTimeFormatter PING_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
+	private static final int HEARTBEAT_WHEEL_SIZE = 64;
+
+	private final ConcurrentHashMap<String, StreamSubscriber> subscribers = new ConcurrentHashMap<>();
+	private final Map<StreamChannel, Set<StreamSubscriber>> channelSubscribers = new EnumMap<>(StreamChannel.class);
+	// 채널 필터 없이 구독한 클라이언트, enum 에 없는 채널의 메시지는 이들에게만 전달
+	private final Set<StreamSubscriber> unfilteredSubscribers = ConcurrentHashMap.newKeySet();
+	private final SymbolIndex symbolIndex = new SymbolIndex();
+	private final DeltaPublisher deltaPublisher = new DeltaPublisher();
+	private final BinaryPublisher binaryPublisher = new BinaryPublisher();
+	private final ReplayBuffer replayBuffer;
+	private final SnapshotSource snapshot;
+	// id 부여와 큐 적재를 한 번에 묶어 lane 이 여러 개여도 구독자마다 id 순서대로 쌓임
+	// 재전송을 동반한 구독 등록도 같은 잠금으로 발행 사이에 끼움
+	private final Lock publishLock = new ReentrantLock();
+	private final ExecutorService writerPool;
+	// 배치 창이 켜져 있으면 메시지마다 drain 하지 않고 창마다 모아서 한 번에 씀
+	private final ScheduledExecutorService batchTicker;
+	private final Set<StreamSubscriber> batchPending = ConcurrentHashMap.newKeySet();
+	// 심볼별 최신 값만 모아 두었다가 주기마다 보내는 구독자 (maxHz 요청 또는 큐 밀림)
+	private final ScheduledExecutorService conflationTicker;
+	private final Set<StreamSubscriber> conflating = ConcurrentHashMap.newKeySet();
+	// 조용한 연결에만 ping, 멈춘 연결과 수명이 다한 SSE 연결 정리
+	private final HeartbeatWheel heartbeatWheel;
+	private final ScheduledExecutorService heartbeatTicker;
+	private final long heartbeatNanos;
+	private final long stalledNanos;
+	private final long maxLifetimeNanos;
+	// tick 스레드만 사용, tick 마다 한 번만 인코딩
+	private SseFrame ping;
+	private final int autoConflateDepth;
+	private final double autoConflateHz;
+	private final int queueCapacity;
+	private final OverflowPolicy overflowPolicy;
+
+	private final DistributionSummary queueDepth;
+	private final Counter droppedMessages;
+	private final Counter rejectedClients;
+	private final Counter stalledClients;
+	private final Counter expiredClients;
+	private final Counter failedClients;
+	private final Counter removedClients;
+	private final Counter heartbeats;
+	private final Timer writeDelay;
+	private final Timer deliveryLatency;
+	private final Timer publishDuration;
+	private final Counter autoConflatedClients;
+
+	public StreamFanout(
+		MeterRegistry meterRegistry,
+		SnapshotSource snapshot,
+		@Value("${stream.fanout.writer-threads:4}") int writerThreads,
+		@Value("${stream.fanout.queue-capacity:64}") int queueCapacity,
+		@Value("${stream.fanout.overflow-policy:DROP_OLDEST}") OverflowPolicy overflowPolicy,
+		@Value("${stream.replay.capacity:1024}") int replayCapacity,
+		@Value("${stream.fanout.batch-window:0ms}") Duration batchWindow,
+		@Value("${stream.conflation.tick:50ms}") Duration conflationTick,
+		@Value("${stream.conflation.auto-queue-depth:32}") int autoConflateDepth,
+		@Value("${stream.conflation.auto-hz:1}") double autoConflateHz,
+		@Value("${stream.heartbeat.tick:1s}") Duration heartbeatTick,
+		@Value("${stream.heartbeat.interval:15s}") Duration heartbeatInterval,
+		@Value("${stream.heartbeat.stalled-timeout:45s}") Duration stalledTimeout,
+		@Value("${stream.connection.max-lifetime:30m}") Duration maxLifetime) {
+		this.snapshot = snapshot;
+		this.queueCapacity = queueCapacity;
+		this.replayBuffer = new ReplayBuffer(replayCapacity);
+		this.overflowPolicy = overflowPolicy;
+		this.writerPool = Executors.newFixedThreadPool(writerThreads, new WriterThreadFactory());
+		this.batchTicker = batchWindow.isZero() ? null : startTicker("sse-batch", this::flushBatches, batchWindow);
+		this.autoConflateDepth = autoConflateDepth;
+		this.autoConflateHz = autoConflateHz;
+		this.conflationTicker = startTicker("sse-conflate", this::flushConflated, conflationTick);
+		this.heartbeatNanos = heartbeatInterval.toNanos();
+		this.stalledNanos = stalledTimeout.toNanos();
+		this.maxLifetimeNanos = maxLifetime.toNanos();
+		this.heartbeatWheel = new HeartbeatWheel(heartbeatTick.toNanos(), HEARTBEAT_WHEEL_SIZE);
+		this.heartbeatTicker = startTicker("sse-heartbeat", this::tickHeartbeats, heartbeatTick);
+		StreamChannel.concreteChannels()
+			.forEach(channel -> channelSubscribers.put(channel, ConcurrentHashMap.newKeySet()));
+
+		this.queueDepth = DistributionSummary.builder("stream.client.queue.depth")
+			.description("Per-client outbound queue depth observed before each write")
+			.publishPercentiles(0.5, 0.99)
+			.register(meterRegistry);
+		this.droppedMessages = Counter.builder("stream.client.dropped")
+			.tag("policy", overflowPolicy.name())
+			.register(meterRegistry);
+		this.rejectedClients = Counter.builder("stream.client.disconnected")
+			.tag("reason", "overflow")
+			.register(meterRegistry);
+		this.stalledClients = Counter.builder("stream.client.disconnected")
+			.tag("reason", "stalled")
+			.register(meterRegistry);
+		this.expiredClients = Counter.builder("stream.client.disconnected")
+			.tag("reason", "lifetime")
+			.register(meterRegistry);
+		this.failedClients = Counter.builder("stream.client.disconnected")
+			.tag("reason", "send_failure")
+			.register(meterRegistry);
+		this.removedClients = Counter.builder("stream.client.removed")
+			.description("Subscribers removed for any reason, including clients that closed the connection")
+			.register(meterRegistry);
+		this.heartbeats = Counter.builder("stream.client.heartbeats")
+			.description("Pings sent to connections that were quiet for a heartbeat interval")
+			.register(meterRegistry);
+		this.writeDelay = Timer.builder("stream.client.write.delay")
+			.description("Time from enqueue to write of the oldest frame in each write, including the batch window")
+			.publishPercentiles(0.5, 0.99)
+			.register(meterRegistry);
+		this.deliveryLatency = Timer.builder("stream.delivery.latency")
+			.description("Time from Redis receive to client write of the oldest live event in each write")
+			.publishPercentileHistogram()
+			.minimumExpectedValue(Duration.ofMillis(1))
+			.maximumExpectedValue(Duration.ofSeconds(10))
+			.register(meterRegistry);
+		this.publishDuration = Timer.builder("stream.fanout.publish.duration")
+			.description("Time to encode one Redis message and queue it for every matching subscriber")
+			.publishPercentileHistogram()
+			.minimumExpectedValue(Duration.ofNanos(10_000))
+			.maximumExpectedValue(Duration.ofSeconds(1))
+			.register(meterRegistry);
+		this.autoConflatedClients = Counter.builder("stream.client.conflated")
+			.description("Clients switched to per-symbol conflation because their send queue backed up")
+			.register(meterRegistry);
+		Gauge.builder("stream.subscribers.conflating", conflating, Set::size)
+			.register(meterRegistry);
+		Gauge.builder("stream.subscribers", subscribers, ConcurrentHashMap::size)
+			.register(meterRegistry);
+		Gauge.builder("stream.client.queue.depth.max", this, StreamFanout::maxQueueDepth)
+			.register(meterRegistry);
+	}
+
+	// 재전송과 등록을 발행 잠금 안에서 처리해야 재전송분과 실시간 메시지 사이에 빈틈이나 중복이 없음
+	// 스냅샷 인코딩은 잠금 밖에서 미리 해 두고, 그 뒤에 발행된 만큼만 잠금 안에서 재전송으로 메움
+	public StreamSubscriber register(
+		String clientId,
+		SseConnection connection,
+		Subscription subscription,
+		Long lastEventId) {
+		boolean catchUp = subscription.mode() != StreamMode.DELTA && subscription.format() == StreamFormat.JSON;
+		PreparedSnapshot prepared = catchUp
+			&& (lastEventId == null || !replayBuffer.canReplay(lastEventId, queueCapacity))
+			? prepareSnapshot(subscription)
+			: null;
+		publishLock.lock();
+		try {
+			StreamSubscriber subscriber = new StreamSubscriber(
+				clientId, connection, subscription, queueCapacity, overflowPolicy);
+			connection.onWritable(() -> schedule(subscriber));
+			if (catchUp && (lastEventId == null || !replay(subscriber, lastEventId))) {
+				sendSnapshot(subscriber, prepared);
+				if (lastEventId != null) {
+					log.debug("Sent snapshot to client {} instead of replay after event {}", clientId, lastEventId);
+				}
+			}
+			register(subscriber);
+			heartbeatWheel.schedule(subscriber, subscriber.getConnectedAt() + heartbeatNanos);
+			return subscriber;
+		} finally {
+			publishLock.unlock();
+		}
+	}
+
+	private StreamSubscriber register(StreamSubscriber subscriber) {
+		Subscription subscription = subscriber.getSubscription();
+		subscribers.put(subscriber.getClientId(), subscriber);
+		if (subscription.format() == StreamFormat.CBOR) {
+			binaryPublisher.register(subscriber, this::offer);
+			return subscriber;
+		}
+		if (subscription.mode() == StreamMode.DELTA) {
+			deltaPublisher.register(subscriber, this::offerDelta);
+			return subscriber;
+		}
+		if (subscription.hasSymbolFilter()) {
+			symbolIndex.add(subscriber);
+			return subscriber;
+		}
+		subscription.channels().forEach(channel -> channelSubscribers.get(channel).add(subscriber));
+		if (subscription.isAllChannels()) {
+			unfilteredSubscribers.add(subscriber);
+		}
+		return subscriber;
+	}
+
+	public boolean remove(String clientId) {
+		StreamSubscriber subscriber = subscribers.remove(clientId);
+		if (subscriber == null) {
+			return false;
+		}
+		subscriber.getSubscription().channels()
+			.forEach(channel -> channelSubscribers.get(channel).remove(subscriber));
+		unfilteredSubscribers.remove(subscriber);
+		symbolIndex.remove(subscriber);
+		deltaPublisher.remove(subscriber);
+		binaryPublisher.remove(subscriber);
+		batchPending.remove(subscriber);
+		conflating.remove(subscriber);
+		subscriber.close();
+		removedClients.increment();
+		return true;
+	}
+
+	public int size() {
+		return subscribers.size();
+	}
+
+	public void publish(MarketMessage message) {
+		long startedAt = System.nanoTime();
+		// id 를 받기 전에 반영해 두면 잠금 안에서 만드는 snapshot 은 마지막 id 까지의 값을 모두 담음
+		// 아직 id 를 못 받은 메시지 값이 먼저 보일 수는 있지만 그 메시지도 곧 실시간으로 받으므로 빠지는 값은 없음
+		snapshot.apply(message);
+		publishLock.lock();
+		try {
+			replayBuffer.append(message);
+			String channel = message.getChannel();
+			StreamChannel streamChannel = concreteChannel(channel);
+
+			Set<StreamSubscriber> targets = streamChannel == null
+				? unfilteredSubscribers
+				: channelSubscribers.get(streamChannel);
+			if (!targets.isEmpty()) {
+				SseFrame frame = SseFrame.data(message.getId(), message.body(), message.getReceivedAt());
+				targets.forEach(subscriber -> {
+					if (!conflate(subscriber, message, null)) {
+						offer(subscriber, channel, frame);
+					}
+				});
+			}
+
+			if (!symbolIndex.isEmpty()) {
+				publishSlices(message, streamChannel);
+			}
+			if (!deltaPublisher.isEmpty()) {
+				deltaPublisher.publish(message, this::offerDelta);
+			}
+			if (!binaryPublisher.isEmpty()) {
+				binaryPublisher.publish(message, streamChannel, this::offer);
+			}
+		} finally {
+			publishLock.unlock();
+			publishDuration.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+		}
+	}
+
+	// 같은 심볼 조합을 받는 구독자끼리는 잘라낸 프레임을 한 번만 인코딩해서 공유
+	private void publishSlices(MarketMessage message, StreamChannel streamChannel) {
+		Map<BitSet, SseFrame> slices = new HashMap<>();
+		symbolIndex.select(message, streamChannel).forEach((subscriber, selected) -> {
+			if (conflate(subscriber, message, selected)) {
+				return;
+			}
+			SseFrame frame = slices.computeIfAbsent(selected,
+				key -> SseFrame.data(message.getId(), message.slice(key), message.getReceivedAt()));
+			offer(subscriber, message.getChannel(), frame);
+		});
+	}
+
+	// 새 구독자의 첫 이벤트: 심볼별 최신 값 전체, id 는 인코딩 직전의 마지막 발행 id (아직 발행이 없으면 id 없이)
+	// 그 id 이후 발행분을 재전송할 수 없으면 (버퍼 밖이거나 큐보다 많으면) 잠금 안에서 다시 인코딩
+	private void sendSnapshot(StreamSubscriber subscriber, PreparedSnapshot prepared) {
+		// 스냅샷 프레임 자리 하나를 남겨 재전송분이 스냅샷을 큐에서 밀어내지 않게 함
+		boolean current = prepared != null && (prepared.lastId() == null
+			? replayBuffer.lastId().isEmpty()
+			: replayBuffer.canReplay(prepared.lastId(), queueCapacity - 1));
+		PreparedSnapshot ready = current ? prepared : prepareSnapshot(subscriber.getSubscription());
+		if (ready.body() != null) {
+			SseFrame frame = ready.lastId() == null
+				? SseFrame.data(ready.body())
+				: SseFrame.data(ready.lastId(), ready.body());
+			offer(subscriber, SNAPSHOT_KEY, frame);
+		}
+		if (ready.lastId() != null) {
+			replay(subscriber, ready.lastId());
+		}
+	}
+
+	// id 를 먼저 읽음, apply 가 id 부여보다 앞서므로 그 id 까지의 메시지는 이미 모두 반영되어 있음
+	private PreparedSnapshot prepareSnapshot(Subscription subscription) {
+		Long lastId = replayBuffer.lastId().orElse(null);
+		return new PreparedSnapshot(lastId, snapshot.encode(subscription));
+	}
+
+	// lastEventId 이후 놓친 메시지를 보냄, 버퍼에 없거나 송신 큐보다 많으면 false
+	private boolean replay(StreamSubscriber subscriber, long lastEventId) {
+		List<MarketMessage> missed = replayBuffer.since(lastEventId)
+			.filter(messages -> messages.size() <= queueCapacity)
+			.orElse(null);
+		if (missed == null) {
+			return false;
+		}
+
+		Subscription subscription = subscriber.getSubscription();
+		for (MarketMessage message : missed) {
+			if (!subscription.accepts(concreteChannel(message.getChannel()))) {
+				continue;
+			}
+			if (!subscription.hasSymbolFilter()) {
+				offer(subscriber, message.getChannel(), SseFrame.data(message.getId(), message.body()));
+				continue;
+			}
+			BitSet selected = new BitSet();
+			List<MarketMessage.Segment> segments = message.segments();
+			for (int i = 0; i < segments.size(); i++) {
+				if (subscription.symbols().contains(segments.get(i).symbol())) {
+					selected.set(i);
+				}
+			}
+			if (!selected.isEmpty()) {
+				offer(subscriber, message.getChannel(), SseFrame.data(message.getId(), message.slice(selected)));
+			}
+		}
+		log.debug("Replayed {} messages to client {} after event {}",
+			missed.size(), subscriber.getClientId(), lastEventId);
+		return true;
+	}
+
+	private static StreamChannel concreteChannel(String channel) {
+		return StreamChannel.fromChannel(channel)
+			.filter(StreamChannel::isConcrete)
+			.orElse(null);
+	}
+
+	// maxHz 를 요청했거나 송신 큐가 밀린 구독자는 틱마다 큐에 넣지 않고 심볼별 최신 값으로 합침
+	private boolean conflate(StreamSubscriber subscriber, MarketMessage message, BitSet selected) {
+		if (autoConflateDepth > 0
+			&& subscriber.getConflater() == null
+			&& subscriber.getQueueDepth() >= autoConflateDepth
+			&& subscriber.startConflating(autoConflateHz)) {
+			autoConflatedClients.increment();
+			log.debug("Client {} is falling behind, conflating at {} Hz", subscriber.getClientId(), autoConflateHz);
+		}
+		if (!subscriber.conflate(message, selected)) {
+			return false;
+		}
+		conflating.add(subscriber);
+		return true;
+	}
+
+	private void flushConflated() {
+		long now = System.nanoTime();
+		for (StreamSubscriber subscriber : conflating) {
+			SymbolConflater conflater = subscriber.getConflater();
+			if (conflater != null) {
+				conflater.flush(now).forEach(frame -> offer(subscriber, frame.getKey(), frame.getValue()));
+			}
+			if (conflater == null || subscriber.stopConflatingIfIdle()) {
+				conflating.remove(subscriber);
+			}
+		}
+	}
+
+	private void offerDelta(StreamSubscriber subscriber, SseFrame frame) {
+		offer(subscriber, DELTA_KEY, frame);
+	}
+
+	private void offer(StreamSubscriber subscriber, String key, SseFrame frame) {
+		StreamSubscriber.EnqueueResult result = subscriber.enqueue(key, frame);
+		switch (result) {
+			case REJECTED -> disconnect(subscriber, rejectedClients, "send queue overflow");
+			case DROPPED -> {
+				droppedMessages.increment();
+				scheduleBatched(subscriber);
+			}
+			case ACCEPTED -> scheduleBatched(subscriber);
+		}
+	}
+
+	private void disconnect(StreamSubscriber subscriber, Counter counter, String reason) {
+		if (remove(subscriber.getClientId())) {
+			counter.increment();
+			subscriber.getConnection().close();
+			log.debug("Disconnected client {} due to {}", subscriber.getClientId(), reason);
+		}
+	}
+
+	private void tickHeartbeats() {
+		try {
+			ping = null;
+			heartbeatWheel.advance(System.nanoTime(), this::checkHeartbeat);
+		} catch (Exception e) {
+			log.error("Failed to check heartbeats: ", e);
+		}
+	}
+
+	// 휠에서 확인 시각이 된 구독자만 호출됨, 다음 확인 시각을 돌려주고 0 이면 휠에서 빠짐
+	// 데이터를 받은 지 heartbeat 간격이 지나지 않은 연결에는 ping 을 보내지 않음
+	long checkHeartbeat(StreamSubscriber subscriber, long now) {
+		if (subscribers.get(subscriber.getClientId()) != subscriber) {
+			return 0;
+		}
+		// WebSocket 연결은 이전처럼 수명 제한 없이 유지
+		boolean sse = subscriber.getSubscription().format() == StreamFormat.JSON;
+		long expiresAt = subscriber.getConnectedAt() + maxLifetimeNanos;
+		if (sse && now - expiresAt >= 0) {
+			disconnect(subscriber, expiredClients, "connection lifetime");
+			return 0;
+		}
+		long lastWriteAt = subscriber.getLastWriteAt();
+		if (now - lastWriteAt >= stalledNanos) {
+			// heartbeat 조차 써지지 않는 연결, 받는 쪽이 사라졌거나 읽지 않음
+			disconnect(subscriber, stalledClients, "no completed write");
+			return 0;
+		}
+
+		long next = lastWriteAt + heartbeatNanos;
+		if (now - lastWriteAt >= heartbeatNanos) {
+			offer(subscriber, HEARTBEAT_KEY, sse ? ping() : BinaryPublisher.HEARTBEAT);
+			heartbeats.increment();
+			next = now + heartbeatNanos;
+		}
+		next = Math.min(next, lastWriteAt + stalledNanos);
+		return sse ? Math.min(next, expiresAt) : next;
+	}
+
+	private SseFrame ping() {
+		if (ping == null) {
+			ping = SseFrame.data("ping " + LocalDateTime.now().format(PING_FORMAT));
+		}
+		return ping;
+	}
+
+	private void scheduleBatched(StreamSubscriber subscriber) {
+		if (batchTicker == null) {
+			schedule(subscriber);
+		} else if (subscriber.markBatchPending()) {
+			batchPending.add(subscriber);
+		}
+	}
+
+	private static ScheduledExecutorService startTicker(String name, Runnable task, Duration period) {
+		ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+			Thread thread = new Thread(runnable, name);
+			thread.setDaemon(true);
+			return thread;
+		});
+		ticker.scheduleAtFixedRate(task, period.toNanos(), period.toNanos(), TimeUnit.NANOSECONDS);
+		return ticker;
+	}
+
+	private void flushBatches() {
+		for (StreamSubscriber subscriber : batchPending) {
+			batchPending.remove(subscriber);
+			subscriber.clearBatchPending();
+			schedule(subscriber);
+		}
+	}
+
+	private void schedule(StreamSubscriber subscriber) {
+		if (subscriber.tryStartDrain()) {
+			writerPool.execute(() -> drain(subscriber));
+		}
+	}
+
+	private void drain(StreamSubscriber subscriber) {
+		SseConnection connection = subscriber.getConnection();
+		try {
+			if (connection.isReady()) {
+				// 큐 깊이는 발행마다가 아니라 write 마다 한 번 샘플링
+				queueDepth.record(subscriber.getQueueDepth());
+				List<SseFrame> frames = new ArrayList<>();
+				long oldestEnqueuedAt = subscriber.drainTo(frames, MAX_FRAMES_PER_DRAIN);
+				if (!frames.isEmpty()) {
+					// 큐에 모인 이벤트를 한 번의 write 와 flush 로 보냄
+					connection.write(frames);
+					long now = System.nanoTime();
+					subscriber.markWritten(now);
+					writeDelay.record(now - oldestEnqueuedAt, TimeUnit.NANOSECONDS);
+					recordDelivery(frames, now);
+				}
+			}
+			// 쓰기 불가로 멈췄던 연결은 버퍼에 남은 프레임이 있을 수 있으므로 쓸 수 있을 때 항상 flush
+			if (connection.isReady()) {
+				connection.flush();
+			}
+		} catch (Exception e) {
+			if (remove(subscriber.getClientId())) {
+				failedClients.increment();
+			}
+			connection.close();
+			log.debug("Removed client {} due to send failure", subscriber.getClientId());
+			return;
+		}
+		// 한 클라이언트가 writer 스레드를 독점하지 않도록 나머지는 다시 큐에 넣음
+		if (subscriber.finishDrain()) {
+			writerPool.execute(() -> drain(subscriber));
+		}
+	}
+
+	// write 한 번에 샘플 하나, 스냅샷/재전송/heartbeat 처럼 수신 시각이 없는 프레임은 제외
+	private void recordDelivery(List<SseFrame> frames, long now) {
+		long oldestReceivedAt = 0;
+		for (SseFrame frame : frames) {
+			long receivedAt = frame.receivedAt();
+			if (receivedAt != 0 && (oldestReceivedAt == 0 || receivedAt - oldestReceivedAt < 0)) {
+				oldestReceivedAt = receivedAt;
+			}
+		}
+		if (oldestReceivedAt != 0) {
+			deliveryLatency.record(now - oldestReceivedAt, TimeUnit.NANOSECONDS);
+		}
+	}
+
+	private double maxQueueDepth() {
+		return subscribers.values().stream()
+			.mapToInt(StreamSubscriber::getQueueDepth)
+			.max()
+			.orElse(0);
+	}
+
+	// 벤치마크처럼 스프링 밖에서 만든 인스턴스도 ticker 와 writer 스레드를 정리할 수 있게 패키지 공개
+	@PreDestroy
+	void shutdown() throws InterruptedException {
+		if (batchTicker != null) {
+			batchTicker.shutdownNow();
+		}
+		conflationTicker.shutdownNow();
+		heartbeatTicker.shutdownNow();
+		writerPool.shutdown();
+		writerPool.awaitTermination(1, TimeUnit.SECONDS);
+		subscribers.clear();
+	}
+
+	// 잠금 밖에서 인코딩한 스냅샷 본문과 인코딩 직전의 마지막 발행 id, 보낼 값이 없으면 body 는 null
+	private record PreparedSnapshot(Long lastId, byte[] body) {
+	}
+
+	private static class WriterThreadFactory implements ThreadFactory {
+		private final AtomicInteger sequence = new AtomicInteger();
+
+		@Override
+		public Thread newThread(Runnable runnable) {
+			Thread thread = new Thread(runnable, "sse-writer-" + sequence.incrementAndGet());
+			thread.setDaemon(true);
+			return thread;
+		}
+	}
+}
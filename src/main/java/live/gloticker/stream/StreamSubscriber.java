@@ -0,0 +1,168 @@
+package live.gloticker.stream;
+
+import java.util.ArrayDeque;
+import java.util.BitSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import live.gloticker.constant.OverflowPolicy;
+import lombok.Getter;
+
+// 클라이언트별 송신 큐: 브로드캐스트는 큐에 넣기만 하고 전송은 writer 풀이 담당
+public class StreamSubscriber {
+	@Getter
+	private final String clientId;
+	@Getter
+	private final SseConnection connection;
+	@Getter
+	private final Subscription subscription;
+	private final int capacity;
+	private final OverflowPolicy overflowPolicy;
+	private final ArrayDeque<Outbound> queue;
+	private final AtomicBoolean draining = new AtomicBoolean();
+	private final AtomicBoolean batchPending = new AtomicBoolean();
+	private volatile boolean closed;
+	@Getter
+	private final long connectedAt = System.nanoTime();
+	// 마지막으로 write 가 끝난 시각, heartbeat 와 멈춘 연결 판단 기준
+	@Getter
+	private volatile long lastWriteAt = connectedAt;
+	// null 이 아니면 메시지를 큐에 넣지 않고 심볼별 최신 값으로 합쳐 두었다가 주기마다 보냄
+	@Getter
+	private volatile SymbolConflater conflater;
+
+	public StreamSubscriber(
+		String clientId,
+		SseConnection connection,
+		Subscription subscription,
+		int capacity,
+		OverflowPolicy overflowPolicy) {
+		this.clientId = clientId;
+		this.connection = connection;
+		this.subscription = subscription;
+		this.capacity = capacity;
+		this.overflowPolicy = overflowPolicy;
+		this.queue = new ArrayDeque<>(capacity);
+		if (subscription.isRateLimited()) {
+			this.conflater = new SymbolConflater(subscription.maxHz(), false);
+		}
+	}
+
+	// 이미 합치는 중이면 false
+	synchronized boolean startConflating(double hz) {
+		if (conflater != null) {
+			return false;
+		}
+		conflater = new SymbolConflater(hz, true);
+		return true;
+	}
+
+	// 합치는 중이면 값을 넣고 true, 아니면 호출한 쪽이 큐에 넣음
+	synchronized boolean conflate(MarketMessage message, BitSet selected) {
+		if (conflater == null) {
+			return false;
+		}
+		conflater.add(message, selected);
+		return true;
+	}
+
+	// 자동으로 켜진 합치기는 보낼 값과 큐가 모두 비면 다시 틱 단위 전송으로 돌아감
+	synchronized boolean stopConflatingIfIdle() {
+		if (conflater != null && conflater.isAutomatic() && conflater.isEmpty() && queue.isEmpty()) {
+			conflater = null;
+			return true;
+		}
+		return false;
+	}
+
+	public enum EnqueueResult {
+		ACCEPTED,
+		DROPPED,
+		REJECTED
+	}
+
+	public synchronized EnqueueResult enqueue(String key, SseFrame frame) {
+		if (closed) {
+			return EnqueueResult.REJECTED;
+		}
+		if (queue.size() < capacity) {
+			queue.addLast(new Outbound(key, frame, System.nanoTime()));
+			return EnqueueResult.ACCEPTED;
+		}
+
+		if (overflowPolicy == OverflowPolicy.DISCONNECT) {
+			return EnqueueResult.REJECTED;
+		}
+		if (overflowPolicy != OverflowPolicy.CONFLATE || !replacePending(key, frame)) {
+			queue.pollFirst();
+			queue.addLast(new Outbound(key, frame, System.nanoTime()));
+		}
+		return EnqueueResult.DROPPED;
+	}
+
+	private boolean replacePending(String key, SseFrame frame) {
+		Iterator<Outbound> iterator = queue.iterator();
+		while (iterator.hasNext()) {
+			if (iterator.next().key().equals(key)) {
+				iterator.remove();
+				queue.addLast(new Outbound(key, frame, System.nanoTime()));
+				return true;
+			}
+		}
+		return false;
+	}
+
+	// 큐에서 최대 max 개를 꺼내 frames 에 담고, 그중 가장 먼저 들어온 프레임의 enqueue 시각을 돌려줌
+	synchronized long drainTo(List<SseFrame> frames, int max) {
+		long oldestEnqueuedAt = 0;
+		Outbound next;
+		while (frames.size() < max && (next = queue.pollFirst()) != null) {
+			if (frames.isEmpty()) {
+				oldestEnqueuedAt = next.enqueuedAt();
+			}
+			frames.add(next.frame());
+		}
+		return oldestEnqueuedAt;
+	}
+
+	// 배치 창 동안 한 번만 예약되도록 표시, 이미 예약돼 있으면 false
+	boolean markBatchPending() {
+		return batchPending.compareAndSet(false, true);
+	}
+
+	void clearBatchPending() {
+		batchPending.set(false);
+	}
+
+	public synchronized int getQueueDepth() {
+		return queue.size();
+	}
+
+	boolean tryStartDrain() {
+		return draining.compareAndSet(false, true);
+	}
+
+	// drain 종료 직전에 들어온 메시지가 있으면 다시 drain 권한을 가져옴
+	// 연결이 쓰기 불가 상태면 onWritable 콜백이 다시 깨우므로 여기서는 넘김
+	boolean finishDrain() {
+		draining.set(false);
+		return getQueueDepth() > 0 && !closed && connection.isReady() && tryStartDrain();
+	}
+
+	void markWritten(long now) {
+		lastWriteAt = now;
+	}
+
+	public boolean isClosed() {
+		return closed;
+	}
+
+	synchronized void close() {
+		closed = true;
+		queue.clear();
+	}
+
+	private record Outbound(String key, SseFrame frame, long enqueuedAt) {
+	}
+}
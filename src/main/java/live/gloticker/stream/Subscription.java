@@ -0,0 +1,81 @@
+package live.gloticker.stream;
+
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import live.gloticker.constant.StreamChannel;
+import live.gloticker.constant.StreamFormat;
+import live.gloticker.constant.StreamMode;
+import live.gloticker.exception.InvalidRequestException;
+
+// maxHz 가 0 이면 모든 틱을 받고, 0 보다 크면 심볼별 최신 값만 초당 maxHz 번 받음
+public record Subscription(
+	Set<StreamChannel> channels,
+	Set<String> symbols,
+	StreamMode mode,
+	StreamFormat format,
+	double maxHz) {
+	private static final int MAX_SYMBOLS = 100;
+	private static final double MAX_HZ = 20;
+
+	public static Subscription of(List<String> channels, List<String> symbols, String mode) {
+		return of(channels, symbols, mode, null);
+	}
+
+	public static Subscription of(List<String> channels, List<String> symbols, String mode, Double maxHz) {
+		StreamMode streamMode = StreamMode.from(mode);
+		return new Subscription(StreamChannel.fromAliases(channels), parseSymbols(symbols), streamMode,
+			StreamFormat.JSON, parseMaxHz(maxHz, streamMode));
+	}
+
+	public Subscription withFormat(StreamFormat format) {
+		return new Subscription(channels, symbols, mode, format, maxHz);
+	}
+
+	private static double parseMaxHz(Double maxHz, StreamMode mode) {
+		if (maxHz == null) {
+			return 0;
+		}
+		if (!(maxHz > 0 && maxHz <= MAX_HZ)) {
+			throw new InvalidRequestException("maxHz must be in (0, " + MAX_HZ + "]: " + maxHz);
+		}
+		// delta 는 seq 로 빈틈을 감지하므로 중간 프레임을 합칠 수 없음
+		if (mode == StreamMode.DELTA) {
+			throw new InvalidRequestException("maxHz is not supported with mode=delta");
+		}
+		return maxHz;
+	}
+
+	private static Set<String> parseSymbols(Collection<String> symbols) {
+		Set<String> parsed = new LinkedHashSet<>();
+		if (symbols != null) {
+			symbols.stream()
+				.map(String::trim)
+				.filter(symbol -> !symbol.isEmpty())
+				.forEach(parsed::add);
+		}
+		if (parsed.size() > MAX_SYMBOLS) {
+			throw new InvalidRequestException("Too many symbols: " + parsed.size());
+		}
+		return Set.copyOf(parsed);
+	}
+
+	public boolean isAllChannels() {
+		return channels.containsAll(StreamChannel.concreteChannels());
+	}
+
+	public boolean isRateLimited() {
+		return maxHz > 0;
+	}
+
+	public boolean hasSymbolFilter() {
+		return !symbols.isEmpty();
+	}
+
+	// enum 에 없는 채널(null)은 전체 채널 구독자만 받음
+	public boolean accepts(StreamChannel channel) {
+		return channel == null ? isAllChannels() : channels.contains(channel);
+	}
+}
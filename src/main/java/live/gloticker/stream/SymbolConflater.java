@@ -0,0 +1,80 @@
+package live.gloticker.stream;
+
+import java.io.ByteArrayOutputStream;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import lombok.Getter;
+
+// 구독자 하나의 채널 -> 심볼 -> 마지막 값, flush 때 채널마다 {"SYM":{...},...} 이벤트 하나로 묶어 냄
+// 원본 메시지의 바이트 구간만 참조하므로 틱마다 복사하지 않음
+public class SymbolConflater {
+	private final Map<String, Map<String, Slice>> pending = new LinkedHashMap<>();
+	private final long intervalNanos;
+	@Getter
+	private final boolean automatic;
+	private long lastEventId;
+	private long nextFlushAt;
+
+	SymbolConflater(double hz, boolean automatic) {
+		this.intervalNanos = (long)(1_000_000_000L / hz);
+		this.automatic = automatic;
+	}
+
+	synchronized void add(MarketMessage message, BitSet selected) {
+		List<MarketMessage.Segment> segments = message.segments();
+		Map<String, Slice> symbols = pending.computeIfAbsent(message.getChannel(), key -> new LinkedHashMap<>());
+		for (int i = 0; i < segments.size(); i++) {
+			if (selected == null || selected.get(i)) {
+				MarketMessage.Segment segment = segments.get(i);
+				symbols.put(segment.symbol(), new Slice(message, segment));
+			}
+		}
+		lastEventId = Math.max(lastEventId, message.getId());
+	}
+
+	synchronized boolean isEmpty() {
+		return pending.isEmpty();
+	}
+
+	// 주기가 되지 않았거나 모인 값이 없으면 빈 목록
+	synchronized List<Map.Entry<String, SseFrame>> flush(long now) {
+		if (pending.isEmpty() || now < nextFlushAt) {
+			return List.of();
+		}
+		List<Map.Entry<String, SseFrame>> frames = new ArrayList<>(pending.size());
+		pending.forEach((channel, symbols) -> {
+			if (!symbols.isEmpty()) {
+				frames.add(Map.entry(channel, SseFrame.data(lastEventId, encode(symbols))));
+			}
+		});
+		pending.clear();
+		nextFlushAt = now + intervalNanos;
+		return frames;
+	}
+
+	private static byte[] encode(Map<String, Slice> symbols) {
+		return encode(symbols.values());
+	}
+
+	static byte[] encode(Collection<Slice> slices) {
+		ByteArrayOutputStream out = new ByteArrayOutputStream();
+		out.write('{');
+		for (Slice slice : slices) {
+			if (out.size() > 1) {
+				out.write(',');
+			}
+			MarketMessage.Segment segment = slice.segment();
+			out.write(slice.message().body(), segment.start(), segment.length());
+		}
+		out.write('}');
+		return out.toByteArray();
+	}
+
+	record Slice(MarketMessage message, MarketMessage.Segment segment) {
+	}
+}
@@ -0,0 +1,55 @@
+package live.gloticker.stream;
+
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import live.gloticker.constant.StreamChannel;
+
+// 심볼 -> 구독자 역색인, 메시지의 심볼 수와 실제 구독 수에만 비례해서 동작
+public class SymbolIndex {
+	private final ConcurrentHashMap<String, Set<StreamSubscriber>> subscribersBySymbol = new ConcurrentHashMap<>();
+
+	// 집합 생성과 추가를 한 compute 안에서 함, 밖에서 추가하면 그 사이 remove 가 빈 집합을 떼어 내 구독자가 사라질 수 있음
+	public void add(StreamSubscriber subscriber) {
+		subscriber.getSubscription().symbols().forEach(symbol ->
+			subscribersBySymbol.compute(symbol, (key, subscribers) -> {
+				Set<StreamSubscriber> set = subscribers == null ? ConcurrentHashMap.newKeySet() : subscribers;
+				set.add(subscriber);
+				return set;
+			}));
+	}
+
+	public void remove(StreamSubscriber subscriber) {
+		subscriber.getSubscription().symbols().forEach(symbol ->
+			subscribersBySymbol.computeIfPresent(symbol, (key, subscribers) -> {
+				subscribers.remove(subscriber);
+				return subscribers.isEmpty() ? null : subscribers;
+			}));
+	}
+
+	public boolean isEmpty() {
+		return subscribersBySymbol.isEmpty();
+	}
+
+	// 구독자별로 메시지 안에서 받아야 할 심볼 위치를 BitSet 으로 모음
+	public Map<StreamSubscriber, BitSet> select(MarketMessage message, StreamChannel channel) {
+		List<MarketMessage.Segment> segments = message.segments();
+		Map<StreamSubscriber, BitSet> selections = new HashMap<>();
+		for (int i = 0; i < segments.size(); i++) {
+			Set<StreamSubscriber> subscribers = subscribersBySymbol.get(segments.get(i).symbol());
+			if (subscribers == null) {
+				continue;
+			}
+			for (StreamSubscriber subscriber : subscribers) {
+				if (subscriber.getSubscription().accepts(channel)) {
+					selections.computeIfAbsent(subscriber, key -> new BitSet(segments.size())).set(i);
+				}
+			}
+		}
+		return selections;
+	}
+}
@@ -0,0 +1,46 @@
+package live.gloticker.stream;
+
+import java.io.IOException;
+import java.util.List;
+
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import lombok.RequiredArgsConstructor;
+
+// 구독자 큐는 한 번에 하나의 writer 만 drain 하므로 세션에 동시 전송이 일어나지 않음
+@RequiredArgsConstructor
+public class WebSocketConnection implements SseConnection {
+	private final WebSocketSession session;
+
+	@Override
+	public boolean isReady() {
+		return true;
+	}
+
+	@Override
+	public void write(SseFrame frame) throws IOException {
+		session.sendMessage(new BinaryMessage(frame.buffer()));
+	}
+
+	// 바이너리 메시지는 하나가 CBOR 값 하나이므로 이어 붙이지 않고 각각 보냄
+	@Override
+	public void write(List<SseFrame> frames) throws IOException {
+		for (SseFrame frame : frames) {
+			write(frame);
+		}
+	}
+
+	@Override
+	public void flush() {
+	}
+
+	@Override
+	public void close() {
+		try {
+			session.close();
+		} catch (IOException e) {
+			// 이미 끊긴 세션
+		}
+	}
+}
@@ -0,0 +1,38 @@
+package live.gloticker.api;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+class MarketDataApiTest {
+
+	@Test
+	void acceptsListedGzip() {
+		assertTrue(MarketDataApi.acceptsGzip("gzip"));
+		assertTrue(MarketDataApi.acceptsGzip("gzip, deflate, br"));
+		assertTrue(MarketDataApi.acceptsGzip("br;q=1.0, GZIP;q=0.5"));
+		assertTrue(MarketDataApi.acceptsGzip("x-gzip"));
+	}
+
+	@Test
+	void rejectsGzipWithZeroQuality() {
+		assertFalse(MarketDataApi.acceptsGzip("gzip;q=0"));
+		assertFalse(MarketDataApi.acceptsGzip("gzip; q=0.000, identity"));
+		assertFalse(MarketDataApi.acceptsGzip("*;q=1, gzip;q=0"));
+	}
+
+	@Test
+	void fallsBackToWildcard() {
+		assertTrue(MarketDataApi.acceptsGzip("*"));
+		assertFalse(MarketDataApi.acceptsGzip("*;q=0"));
+		assertFalse(MarketDataApi.acceptsGzip("identity"));
+	}
+
+	@Test
+	void rejectsMissingOrMalformedHeader() {
+		assertFalse(MarketDataApi.acceptsGzip(null));
+		assertFalse(MarketDataApi.acceptsGzip(""));
+		assertFalse(MarketDataApi.acceptsGzip("gzip;q=abc"));
+	}
+}
@@ -0,0 +1,154 @@
+package live.gloticker.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.util.StringUtils;
+
+import jakarta.servlet.http.HttpServletRequest;
+import live.gloticker.constant.FingerprintHash;
+
+// 버퍼 기반 구현이 이전 구현과 같은 입력 바이트를 해시하는지 무작위 헤더 조합으로 확인, 다르면 기존 버킷 키가 모두 바뀜
+class BrowserFingerprintTest {
+	private static final int ROUNDS = 20_000;
+	private static final List<String> HEADERS = List.of(
+		"User-Agent", "Accept-Language", "X-Forwarded-For", "X-Real-IP", "REMOTE_ADDR", "Sec-Fetch-Site",
+		"Sec-Fetch-Mode");
+	private static final List<String> VALUES = List.of(
+		"Mozilla/5.0 (Macintosh; Intel Mac OS X 10_15_7) AppleWebKit/605.1.15 (KHTML, like Gecko) Version/17.4",
+		"Mozilla/5.0 (X11; Linux x86_64)",
+		"en-US,en;q=0.9",
+		"ko-KR",
+		"203.0.113.7, 10.0.0.2",
+		"[2001:db8::1]",
+		"0:0:0:0:0:0:0:1",
+		"same-origin",
+		"cors",
+		"unknown",
+		"UNKNOWN",
+		"",
+		" ",
+		"   ",
+		"a<b>",
+		"tab\tseparated",
+		"quote\"d",
+		"한국어",
+		"x".repeat(999),
+		"x".repeat(1000));
+	private static final List<String> REMOTE_ADDRESSES = List.of("10.0.0.12", "0:0:0:0:0:0:0:1", "127.0.0.1");
+
+	private final BrowserFingerprint sha256 = new BrowserFingerprint(FingerprintHash.SHA256);
+	private final BrowserFingerprint murmur3 = new BrowserFingerprint(FingerprintHash.MURMUR3);
+
+	@Test
+	void sha256MatchesPreviousImplementation() {
+		Random random = new Random(42);
+		for (int i = 0; i < ROUNDS; i++) {
+			MockHttpServletRequest request = randomRequest(random);
+			assertEquals(LegacyFingerprint.generate(request), sha256.generateFingerprint(request),
+				() -> describe(request));
+		}
+	}
+
+	@Test
+	void murmur3HashesTheSameInput() {
+		Random random = new Random(7);
+		for (int i = 0; i < ROUNDS; i++) {
+			MockHttpServletRequest request = randomRequest(random);
+			byte[] input = LegacyFingerprint.input(request).getBytes(StandardCharsets.UTF_8);
+			String expected = Base64.getEncoder().encodeToString(Murmur3.hash128(input, input.length));
+			assertEquals(expected, murmur3.generateFingerprint(request), () -> describe(request));
+		}
+	}
+
+	// 스레드별 버퍼를 재사용하므로 긴 요청 뒤의 짧은 요청에 이전 바이트가 섞이지 않아야 함
+	@Test
+	void reusedBufferDoesNotLeakPreviousRequest() {
+		MockHttpServletRequest longRequest = new MockHttpServletRequest("GET", "/v1/market/subscribe");
+		longRequest.addHeader("User-Agent", "x".repeat(999));
+		longRequest.addHeader("Accept-Language", "y".repeat(999));
+		MockHttpServletRequest shortRequest = new MockHttpServletRequest("GET", "/v1/market/subscribe");
+
+		sha256.generateFingerprint(longRequest);
+
+		assertEquals(LegacyFingerprint.generate(shortRequest), sha256.generateFingerprint(shortRequest));
+	}
+
+	private static MockHttpServletRequest randomRequest(Random random) {
+		MockHttpServletRequest request = new MockHttpServletRequest("GET", "/v1/market/subscribe");
+		request.setRemoteAddr(REMOTE_ADDRESSES.get(random.nextInt(REMOTE_ADDRESSES.size())));
+		for (String header : HEADERS) {
+			// 절반 정도는 헤더 없음
+			if (random.nextBoolean()) {
+				request.addHeader(header, VALUES.get(random.nextInt(VALUES.size())));
+			}
+		}
+		return request;
+	}
+
+	private static String describe(HttpServletRequest request) {
+		return HEADERS.stream()
+			.map(header -> header + "=" + request.getHeader(header))
+			.collect(Collectors.joining(", ", "{", ", remoteAddr=" + request.getRemoteAddr() + "}"));
+	}
+
+	// 최적화 전 BrowserFingerprint 그대로
+	private static final class LegacyFingerprint {
+		private static final String UNKNOWN_VALUE = "unknown";
+		private static final int MAX_HEADER_LENGTH = 1000;
+		private static final Pattern VALID_HEADER_PATTERN = Pattern.compile("[a-zA-Z0-9\\-_.,;: /\\[\\]()]+");
+
+		private static String generate(HttpServletRequest request) {
+			try {
+				MessageDigest digest = MessageDigest.getInstance("SHA-256");
+				byte[] hash = digest.digest(input(request).getBytes(StandardCharsets.UTF_8));
+				return Base64.getEncoder().encodeToString(hash);
+			} catch (NoSuchAlgorithmException e) {
+				throw new IllegalStateException(e);
+			}
+		}
+
+		private static String input(HttpServletRequest request) {
+			String essentialPart = appendHeaders(request, List.of("User-Agent", "Accept-Language"));
+			String ip = List.of("X-Forwarded-For", "X-Real-IP", "REMOTE_ADDR").stream()
+				.map(header -> getHeaderValue(request, header))
+				.filter(StringUtils::hasText)
+				.filter(value -> !UNKNOWN_VALUE.equalsIgnoreCase(value))
+				.filter(LegacyFingerprint::isValidHeader)
+				.findFirst()
+				.orElseGet(request::getRemoteAddr);
+			ip = "0:0:0:0:0:0:0:1".equals(ip) ? "127.0.0.1" : ip;
+			String securityPart = appendHeaders(request, List.of("Sec-Fetch-Site", "Sec-Fetch-Mode"));
+			return String.join("|", essentialPart, ip, securityPart);
+		}
+
+		private static String appendHeaders(HttpServletRequest request, List<String> headers) {
+			return headers.stream()
+				.map(header -> getHeaderValue(request, header))
+				.filter(LegacyFingerprint::isValidHeader)
+				.collect(Collectors.joining("|"));
+		}
+
+		private static String getHeaderValue(HttpServletRequest request, String headerName) {
+			String value = request.getHeader(headerName);
+			return StringUtils.hasText(value) ? value : UNKNOWN_VALUE;
+		}
+
+		private static boolean isValidHeader(String value) {
+			return StringUtils.hasText(value)
+				&& !UNKNOWN_VALUE.equalsIgnoreCase(value)
+				&& value.length() < MAX_HEADER_LENGTH
+				&& VALID_HEADER_PATTERN.matcher(value).matches();
+		}
+	}
+}
@@ -0,0 +1,62 @@
+package live.gloticker.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HexFormat;
+
+import org.junit.jupiter.api.Test;
+
+// 기대값은 Guava Hashing.murmur3_128() (seed 0) 의 HashCode.toString(), 같은 h1, h2 little-endian 바이트 순서
+class Murmur3Test {
+	private static final HexFormat HEX = HexFormat.of();
+
+	@Test
+	void matchesGuavaReferenceVectors() {
+		assertHash("00000000000000000000000000000000", "");
+		assertHash("897859f6655555855a890e51483ab5e6", "a");
+		assertHash("6778ad3f3f3f96b4522dca264174a23b", "abc");
+		assertHash("029bbd41b3a7d8cb191dae486a901e5b", "hello");
+		// 블록 경계 앞뒤: 15, 16, 17 바이트
+		assertHash("d6cfafa2ae017088b301084f3626c31e", "123456789012345");
+		assertHash("f82ce3c0c55dbe4fc122c3606be9c8c0", "1234567890123456");
+		assertHash("7eb726809617867403713f4786631e29", "12345678901234567");
+		assertHash("6c1b07bc7bbc4be347939ac4a93c437a", "The quick brown fox jumps over the lazy dog");
+		assertHash("556402e56483834e4af4169b36845eaf",
+			"Mozilla/5.0 (X11; Linux x86_64)|en-US,en;q=0.9|203.0.113.7|same-origin|cors");
+	}
+
+	// UTF-8 멀티바이트 입력, 음수 바이트가 부호 확장 없이 섞여야 함
+	@Test
+	void matchesGuavaReferenceVectorsForNegativeBytes() {
+		assertHash("bbbf22e721c852593f4aa2503116f9f1", "\u00ff\u00fe\u00fd");
+		assertHash("e76ab08d7611eb5880b1e65c232a92ec", "\uac00\uaca9");
+		assertHash("606779307d6de0332ffd5d6f7d593105", "\u20ac1,234.5");
+		assertHash("00949baa8457e5e72b8f48fd6b80af25", "\u00dcn\u00efc\u00f6d\u00e9 \u2014 0.84%");
+	}
+
+	// fingerprint 버퍼는 길이보다 크므로 앞 length 바이트만 해시해야 함, 뒤에 남은 바이트와 무관하게 같은 참조값
+	@Test
+	void hashesOnlyTheGivenPrefix() {
+		assertPrefixHash("00000000000000000000000000000000", "");
+		assertPrefixHash("897859f6655555855a890e51483ab5e6", "a");
+		assertPrefixHash("d6cfafa2ae017088b301084f3626c31e", "123456789012345");
+		assertPrefixHash("f82ce3c0c55dbe4fc122c3606be9c8c0", "1234567890123456");
+		assertPrefixHash("7eb726809617867403713f4786631e29", "12345678901234567");
+		assertPrefixHash("00949baa8457e5e72b8f48fd6b80af25", "\u00dcn\u00efc\u00f6d\u00e9 \u2014 0.84%");
+	}
+
+	private static void assertHash(String expected, String input) {
+		byte[] bytes = input.getBytes(StandardCharsets.UTF_8);
+		assertEquals(expected, HEX.formatHex(Murmur3.hash128(bytes, bytes.length)), input);
+	}
+
+	private static void assertPrefixHash(String expected, String input) {
+		byte[] bytes = input.getBytes(StandardCharsets.UTF_8);
+		byte[] buffer = new byte[64];
+		Arrays.fill(buffer, (byte)0xA5);
+		System.arraycopy(bytes, 0, buffer, 0, bytes.length);
+		assertEquals(expected, HEX.formatHex(Murmur3.hash128(buffer, bytes.length)), input);
+	}
+}
@@ -0,0 +1,114 @@
+package live.gloticker.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import live.gloticker.constant.CandleInterval;
+import live.gloticker.dto.Candle;
+
+class CandleStoreTest {
+	private static final long MINUTE = 60_000L;
+	// 1h 경계에 맞춘 시각, 1m/5m/1h 캔들이 모두 여기서 시작
+	private static final long START = 1_700_002_800_000L;
+
+	@Test
+	void aggregatesTicksWithinOneInterval() {
+		CandleStore store = new CandleStore(8, 8, 8, 10);
+		store.record("BTC", 100, START);
+		store.record("BTC", 105, START + 10_000);
+		store.record("BTC", 98, START + 20_000);
+		store.record("BTC", 101, START + 59_999);
+
+		List<Candle> candles = store.range("BTC", CandleInterval.ONE_MINUTE, 0, Long.MAX_VALUE, 10);
+
+		assertEquals(List.of(new Candle(START, 100, 105, 98, 101, 4)), candles);
+	}
+
+	@Test
+	void keepsOnlyTheNewestCandlesAfterWrapping() {
+		CandleStore store = new CandleStore(3, 3, 3, 10);
+		for (int minute = 0; minute < 5; minute++) {
+			store.record("BTC", minute, START + minute * MINUTE);
+		}
+
+		List<Candle> candles = store.range("BTC", CandleInterval.ONE_MINUTE, 0, Long.MAX_VALUE, 10);
+
+		assertEquals(List.of(START + 2 * MINUTE, START + 3 * MINUTE, START + 4 * MINUTE), openTimes(candles));
+		assertEquals(2.0, candles.get(0).open());
+		// 5분 캔들 하나에 다섯 틱이 모두 들어감
+		Candle fiveMinutes = store.range("BTC", CandleInterval.FIVE_MINUTES, 0, Long.MAX_VALUE, 10).get(0);
+		assertEquals(new Candle(START, 0, 4, 0, 4, 5), fiveMinutes);
+	}
+
+	@Test
+	void keepsEachIntervalAtItsOwnCapacity() {
+		CandleStore store = new CandleStore(4, 2, 1, 10);
+		for (int minute = 0; minute < 20; minute++) {
+			store.record("BTC", minute, START + minute * MINUTE);
+		}
+
+		assertEquals(4, store.range("BTC", CandleInterval.ONE_MINUTE, 0, Long.MAX_VALUE, 10).size());
+		assertEquals(List.of(START + 10 * MINUTE, START + 15 * MINUTE),
+			openTimes(store.range("BTC", CandleInterval.FIVE_MINUTES, 0, Long.MAX_VALUE, 10)));
+		assertEquals(1, store.range("BTC", CandleInterval.ONE_HOUR, 0, Long.MAX_VALUE, 10).size());
+		assertEquals(2, store.getCapacity(CandleInterval.FIVE_MINUTES));
+	}
+
+	@Test
+	void selectsOpenTimesFromInclusiveToExclusive() {
+		CandleStore store = newStoreWithMinutes(6);
+
+		List<Candle> candles = store.range("BTC", CandleInterval.ONE_MINUTE,
+			START + MINUTE, START + 4 * MINUTE, 10);
+
+		assertEquals(List.of(START + MINUTE, START + 2 * MINUTE, START + 3 * MINUTE), openTimes(candles));
+	}
+
+	@Test
+	void limitKeepsTheNewestInAscendingOrder() {
+		CandleStore store = newStoreWithMinutes(6);
+
+		List<Candle> candles = store.range("BTC", CandleInterval.ONE_MINUTE, 0, Long.MAX_VALUE, 2);
+
+		assertEquals(List.of(START + 4 * MINUTE, START + 5 * MINUTE), openTimes(candles));
+	}
+
+	@Test
+	void mergesTicksThatGoBackInTime() {
+		CandleStore store = new CandleStore(8, 8, 8, 10);
+		store.record("BTC", 100, START + MINUTE);
+		store.record("BTC", 90, START);
+
+		List<Candle> candles = store.range("BTC", CandleInterval.ONE_MINUTE, 0, Long.MAX_VALUE, 10);
+
+		assertEquals(List.of(new Candle(START + MINUTE, 100, 100, 90, 90, 2)), candles);
+	}
+
+	@Test
+	void ignoresMissingPricesAndSymbolsPastTheLimit() {
+		CandleStore store = new CandleStore(8, 8, 8, 1);
+		store.record("BTC", Double.NaN, START);
+		store.record("ETH", 3000, START);
+		store.record("BTC", 100, START);
+
+		assertTrue(store.range("BTC", CandleInterval.ONE_MINUTE, 0, Long.MAX_VALUE, 10).isEmpty());
+		assertEquals(1, store.range("ETH", CandleInterval.ONE_MINUTE, 0, Long.MAX_VALUE, 10).size());
+		assertTrue(store.range("SOL", CandleInterval.ONE_HOUR, 0, Long.MAX_VALUE, 10).isEmpty());
+	}
+
+	private static CandleStore newStoreWithMinutes(int minutes) {
+		CandleStore store = new CandleStore(16, 16, 16, 10);
+		for (int minute = 0; minute < minutes; minute++) {
+			store.record("BTC", 100 + minute, START + minute * MINUTE);
+		}
+		return store;
+	}
+
+	private static List<Long> openTimes(List<Candle> candles) {
+		return candles.stream().map(Candle::openTime).toList();
+	}
+}
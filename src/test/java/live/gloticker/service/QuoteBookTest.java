@@ -0,0 +1,48 @@
+package live.gloticker.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import live.gloticker.dto.Quote;
+import live.gloticker.stream.MarketMessage;
+
+class QuoteBookTest {
+	private final QuoteBook quoteBook = new QuoteBook(new MarketDataClassifier(), new CandleStore(8, 8, 8, 10));
+
+	// 다시 읽기 시작한 뒤에 들어온 틱은 새 디렉터리로 옮겨져 Redis 에서 읽은 값보다 우선
+	@Test
+	void keepsTicksAppliedAfterTheReloadStarted() {
+		long readAt = System.currentTimeMillis();
+		quoteBook.apply(tick("1.10"));
+
+		quoteBook.replace(List.of(forex("1.05")), readAt);
+
+		Quote quote = quoteBook.quotes().get(0);
+		assertEquals(1.10, quote.price());
+		assertEquals(1, quoteBook.quotes().size());
+	}
+
+	@Test
+	void reloadReplacesTicksFromBeforeIt() {
+		quoteBook.apply(tick("1.10"));
+		long readAt = quoteBook.quotes().get(0).updatedAt() + 1;
+
+		quoteBook.replace(List.of(forex("1.05")), readAt);
+
+		Quote quote = quoteBook.quotes().get(0);
+		assertEquals(1.05, quote.price());
+		assertEquals(readAt, quote.updatedAt());
+	}
+
+	private static MarketMessage tick(String rate) {
+		return new MarketMessage("forex.price.stream", forex(rate).getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static String forex(String rate) {
+		return "{\"EURUSD\": {\"rate\": \"" + rate + "\", \"change\": \"0.01\", \"change_percent\": \"0.5\"}}";
+	}
+}
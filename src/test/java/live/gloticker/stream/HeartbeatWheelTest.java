@@ -0,0 +1,105 @@
+package live.gloticker.stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+import live.gloticker.constant.OverflowPolicy;
+
+class HeartbeatWheelTest {
+	private static final long TICK = 1_000_000_000L;
+	private static final int WHEEL_SIZE = 64;
+
+	// 휠은 생성 시각 기준으로 tick 을 세므로 now 를 tick 중간에 두어 경계에서 흔들리지 않게 함
+	private final HeartbeatWheel wheel = new HeartbeatWheel(TICK, WHEEL_SIZE);
+	private final long base = System.nanoTime();
+
+	@Test
+	void firesAfterWrappingPastTheWheelSize() {
+		StreamSubscriber subscriber = subscriber("late");
+		wheel.schedule(subscriber, at(100));
+		List<Integer> fired = new ArrayList<>();
+
+		for (int tick = 0; tick <= 200; tick++) {
+			int current = tick;
+			wheel.advance(at(tick), (expired, now) -> {
+				fired.add(current);
+				return 0;
+			});
+		}
+
+		// 슬롯 100 % 64 를 앞서 한 바퀴 지날 때는 건너뛰고, 확인 시각 뒤 첫 tick 에 한 번만 만기
+		assertEquals(List.of(101), fired);
+	}
+
+	@Test
+	void rearmsWithTheReturnedDeadline() {
+		StreamSubscriber subscriber = subscriber("rearm");
+		wheel.schedule(subscriber, at(5));
+		List<Integer> fired = new ArrayList<>();
+
+		for (int tick = 0; tick <= 200; tick++) {
+			int current = tick;
+			wheel.advance(at(tick), (expired, now) -> {
+				fired.add(current);
+				return fired.size() < 4 ? now + 10 * TICK : 0;
+			});
+		}
+
+		assertEquals(List.of(6, 17, 28, 39), fired);
+	}
+
+	@Test
+	void removesEntriesThatReturnZero() {
+		StreamSubscriber removed = subscriber("removed");
+		StreamSubscriber kept = subscriber("kept");
+		wheel.schedule(removed, at(3));
+		wheel.schedule(kept, at(3));
+		Map<StreamSubscriber, List<Integer>> fired = Map.of(removed, new ArrayList<>(), kept, new ArrayList<>());
+
+		for (int tick = 0; tick <= 3 * WHEEL_SIZE; tick++) {
+			int current = tick;
+			wheel.advance(at(tick), (expired, now) -> {
+				fired.get(expired).add(current);
+				// 휠 한 바퀴보다 긴 간격으로 다시 걸어도 슬롯을 다시 지날 때 일찍 깨지 않음
+				return expired == kept ? now + 70 * TICK : 0;
+			});
+		}
+
+		assertEquals(List.of(4), fired.get(removed));
+		assertEquals(List.of(4, 75, 146), fired.get(kept));
+	}
+
+	@Test
+	void catchesUpOnSkippedTicks() {
+		StreamSubscriber subscriber = subscriber("skipped");
+		wheel.schedule(subscriber, at(10));
+		List<Long> fired = new ArrayList<>();
+
+		wheel.advance(at(0), (expired, now) -> {
+			fired.add(now);
+			return 0;
+		});
+		wheel.advance(at(150), (expired, now) -> {
+			fired.add(now);
+			return 0;
+		});
+
+		assertEquals(1, fired.size());
+		assertTrue(fired.get(0) >= at(10));
+	}
+
+	private long at(int tick) {
+		return base + tick * TICK + TICK / 2;
+	}
+
+	private static StreamSubscriber subscriber(String id) {
+		return new StreamSubscriber(id, null, Subscription.of(List.of("crypto"), List.of(), null), 16,
+			OverflowPolicy.DROP_OLDEST);
+	}
+}
@@ -0,0 +1,79 @@
+package live.gloticker.stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import live.gloticker.constant.IngestOverflowPolicy;
+import live.gloticker.constant.IngestSource;
+
+class IngestDispatcherTest {
+	private static final String CHANNEL = "crypto.price.stream";
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+	// 설정이 DROP_OLDEST 여도 STREAMS 는 기다렸다가 모두 처리, 버린 레코드 뒤의 offset 이 저장되면 안 됨
+	@Test
+	void streamsWaitsInsteadOfDropping() throws Exception {
+		IngestDispatcher dispatcher = new IngestDispatcher(meterRegistry, 1, 1,
+			IngestSource.STREAMS, IngestOverflowPolicy.DROP_OLDEST, Duration.ofMillis(20));
+		CountDownLatch release = new CountDownLatch(1);
+		List<Integer> processed = new CopyOnWriteArrayList<>();
+		dispatcher.dispatch(CHANNEL, () -> awaitQuietly(release));
+		dispatcher.dispatch(CHANNEL, () -> processed.add(1));
+
+		Thread reader = new Thread(() -> dispatcher.dispatch(CHANNEL, () -> processed.add(2)));
+		reader.start();
+		reader.join(200);
+		assertTrue(reader.isAlive());
+
+		release.countDown();
+		reader.join(TimeUnit.SECONDS.toMillis(5));
+		assertFalse(reader.isAlive());
+		awaitSize(processed, 2);
+		assertEquals(List.of(1, 2), processed);
+		assertEquals(0.0, meterRegistry.get("stream.ingest.dropped").counter().count());
+		assertEquals(1.0, meterRegistry.get("stream.ingest.blocked").counter().count());
+	}
+
+	// PUBSUB 은 Lettuce 스레드를 막을 수 없으므로 BLOCK 을 설정해도 가장 오래된 메시지를 버림
+	@Test
+	void pubSubDropsTheOldest() throws Exception {
+		IngestDispatcher dispatcher = new IngestDispatcher(meterRegistry, 1, 1,
+			IngestSource.PUBSUB, IngestOverflowPolicy.BLOCK, Duration.ofMillis(20));
+		CountDownLatch release = new CountDownLatch(1);
+		List<Integer> processed = new CopyOnWriteArrayList<>();
+		dispatcher.dispatch(CHANNEL, () -> awaitQuietly(release));
+		dispatcher.dispatch(CHANNEL, () -> processed.add(1));
+		dispatcher.dispatch(CHANNEL, () -> processed.add(2));
+
+		release.countDown();
+		awaitSize(processed, 1);
+		assertEquals(List.of(2), processed);
+		assertEquals(1.0, meterRegistry.get("stream.ingest.dropped").counter().count());
+	}
+
+	private static void awaitSize(List<Integer> processed, int size) throws InterruptedException {
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+		while (processed.size() < size && System.nanoTime() < deadline) {
+			Thread.sleep(10);
+		}
+	}
+
+	private static void awaitQuietly(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+}
@@ -0,0 +1,100 @@
+package live.gloticker.stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+class ReplayBufferTest {
+
+	@Test
+	void emptyBufferHasNoLastId() {
+		ReplayBuffer buffer = new ReplayBuffer(4);
+
+		assertTrue(buffer.lastId().isEmpty());
+	}
+
+	@Test
+	void sinceReturnsMessagesAfterTheGivenIdInOrder() {
+		ReplayBuffer buffer = new ReplayBuffer(4);
+		List<MarketMessage> messages = append(buffer, 3);
+		long first = messages.get(0).getId();
+
+		List<MarketMessage> missed = buffer.since(first).orElseThrow();
+
+		assertEquals(2, missed.size());
+		assertSame(messages.get(1), missed.get(0));
+		assertSame(messages.get(2), missed.get(1));
+		assertEquals(messages.get(2).getId(), buffer.lastId().orElseThrow());
+	}
+
+	@Test
+	void sinceNewestIdIsEmptyButKnown() {
+		ReplayBuffer buffer = new ReplayBuffer(4);
+		List<MarketMessage> messages = append(buffer, 2);
+
+		assertTrue(buffer.since(messages.get(1).getId()).orElseThrow().isEmpty());
+	}
+
+	// 아직 발행하지 않은 id 는 재전송할 수 없음
+	@Test
+	void sinceFutureIdIsOutOfRange() {
+		ReplayBuffer buffer = new ReplayBuffer(4);
+		List<MarketMessage> messages = append(buffer, 2);
+
+		assertTrue(buffer.since(messages.get(1).getId() + 1).isEmpty());
+	}
+
+	// 다른 노드의 id 는 순번이 이 버퍼 범위 안에 있어도 tag 가 달라 재전송하지 않음
+	@Test
+	void sinceForeignTagIsOutOfRange() {
+		ReplayBuffer local = new ReplayBuffer(4, 1);
+		ReplayBuffer foreign = new ReplayBuffer(4, 2);
+		append(local, 3);
+		List<MarketMessage> foreignMessages = append(foreign, 3);
+		long foreignId = foreignMessages.get(0).getId();
+
+		assertTrue(foreign.since(foreignId).isPresent());
+		assertTrue(local.since(foreignId).isEmpty());
+		assertTrue(local.since(foreignId & ((1L << ReplayBuffer.SEQUENCE_BITS) - 1)).isEmpty());
+	}
+
+	@Test
+	void idsStayBelowTwoToTheFiftyThird() {
+		ReplayBuffer buffer = new ReplayBuffer(4, (1 << 16) - 1);
+		long id = append(buffer, 1).get(0).getId();
+
+		assertTrue(id > 0 && id < 1L << 53);
+	}
+
+	@Test
+	void sinceAfterWrapKeepsOnlyTheLastCapacityMessages() {
+		ReplayBuffer buffer = new ReplayBuffer(4);
+		List<MarketMessage> messages = append(buffer, 10);
+
+		// 7..10 번째가 남아 있으므로 6 번째 id 부터는 빠짐없이 재전송
+		List<MarketMessage> missed = buffer.since(messages.get(5).getId()).orElseThrow();
+		assertEquals(4, missed.size());
+		for (int i = 0; i < missed.size(); i++) {
+			assertSame(messages.get(6 + i), missed.get(i));
+		}
+		// 5 번째 id 이후의 6 번째 메시지는 이미 덮어씀
+		assertTrue(buffer.since(messages.get(4).getId()).isEmpty());
+	}
+
+	private static List<MarketMessage> append(ReplayBuffer buffer, int count) {
+		List<MarketMessage> messages = new ArrayList<>();
+		for (int i = 0; i < count; i++) {
+			MarketMessage message = new MarketMessage("crypto.price.stream",
+				("{\"BTC\": {\"current_price\": \"" + i + "\"}}").getBytes(StandardCharsets.UTF_8));
+			buffer.append(message);
+			messages.add(message);
+		}
+		return messages;
+	}
+}
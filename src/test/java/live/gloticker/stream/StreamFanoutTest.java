@@ -0,0 +1,249 @@
+package live.gloticker.stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import live.gloticker.constant.OverflowPolicy;
+
+class StreamFanoutTest {
+	private static final long SECOND = Duration.ofSeconds(1).toNanos();
+
+	private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+	// heartbeat tick 을 길게 잡아 ticker 대신 테스트가 now 를 넘겨 직접 확인
+	private final StreamFanout fanout = new StreamFanout(meterRegistry, new NoSnapshot(),
+		1, 16, OverflowPolicy.DROP_OLDEST, 16,
+		Duration.ZERO, Duration.ofMillis(50), 0, 1,
+		Duration.ofHours(1), Duration.ofSeconds(15), Duration.ofSeconds(45), Duration.ofMinutes(30));
+
+	@AfterEach
+	void tearDown() throws InterruptedException {
+		fanout.shutdown();
+	}
+
+	@Test
+	void pingsOnlyQuietConnections() {
+		StreamSubscriber quiet = register("quiet");
+		StreamSubscriber active = register("active");
+		long connectedAt = Math.max(quiet.getConnectedAt(), active.getConnectedAt());
+		active.markWritten(connectedAt + 10 * SECOND);
+		long now = connectedAt + 16 * SECOND;
+
+		long quietNext = fanout.checkHeartbeat(quiet, now);
+		long activeNext = fanout.checkHeartbeat(active, now);
+
+		assertEquals(1, quiet.getQueueDepth());
+		assertEquals(now + 15 * SECOND, quietNext);
+		// 10초 전에 데이터를 받은 연결은 ping 없이 마지막 전송 후 15초에 다시 확인
+		assertEquals(0, active.getQueueDepth());
+		assertEquals(connectedAt + 25 * SECOND, activeNext);
+		assertEquals(1.0, meterRegistry.get("stream.client.heartbeats").counter().count());
+	}
+
+	@Test
+	void disconnectsStalledConnections() {
+		StreamSubscriber stalled = register("stalled");
+
+		long next = fanout.checkHeartbeat(stalled, stalled.getConnectedAt() + 45 * SECOND);
+
+		assertEquals(0, next);
+		assertEquals(0, fanout.size());
+		assertTrue(((RecordingConnection)stalled.getConnection()).closed);
+	}
+
+	@Test
+	void skipsRemovedSubscribers() {
+		StreamSubscriber removed = register("removed");
+		fanout.remove("removed");
+
+		assertEquals(0, fanout.checkHeartbeat(removed, removed.getConnectedAt() + 16 * SECOND));
+		assertEquals(0.0, meterRegistry.get("stream.client.heartbeats").counter().count());
+	}
+
+	// lane 두 개가 다른 채널을 동시에 발행해도 두 채널을 모두 받는 구독자에게는 id 가 커지는 순서로만 도착
+	@Test
+	void deliversIdsInOrderAcrossConcurrentLanes() throws Exception {
+		StreamFanout ordered = newFanout(new NoSnapshot(), 8192);
+		try {
+			IdRecordingConnection connection = new IdRecordingConnection();
+			ordered.register("both", connection, Subscription.of(List.of("crypto", "stock"), List.of(), null), null);
+			int perLane = 2000;
+			CountDownLatch start = new CountDownLatch(1);
+			ExecutorService lanes = Executors.newFixedThreadPool(2);
+			for (String channel : List.of("crypto.price.stream", "stock.price.stream")) {
+				lanes.execute(() -> {
+					awaitQuietly(start);
+					for (int i = 0; i < perLane; i++) {
+						ordered.publish(message(channel));
+					}
+				});
+			}
+			start.countDown();
+			lanes.shutdown();
+			assertTrue(lanes.awaitTermination(10, TimeUnit.SECONDS));
+
+			List<Long> ids = connection.awaitIds(2 * perLane);
+			assertEquals(2 * perLane, ids.size());
+			for (int i = 1; i < ids.size(); i++) {
+				assertTrue(ids.get(i) > ids.get(i - 1), "id " + ids.get(i) + " after " + ids.get(i - 1));
+			}
+		} finally {
+			ordered.shutdown();
+		}
+	}
+
+	// 스냅샷을 인코딩하는 동안 다른 lane 이 발행할 수 있어야 하고, 그 사이 발행분은 스냅샷 뒤에 재전송됨
+	@Test
+	void encodesTheSnapshotOutsideThePublishLock() throws Exception {
+		PublishingSnapshot snapshot = new PublishingSnapshot();
+		StreamFanout lateFanout = newFanout(snapshot, 16);
+		snapshot.fanout = lateFanout;
+		try {
+			lateFanout.publish(message("crypto.price.stream"));
+			IdRecordingConnection connection = new IdRecordingConnection();
+			lateFanout.register("late", connection, Subscription.of(List.of("crypto"), List.of(), null), null);
+
+			assertTrue(snapshot.publishedDuringEncode);
+			List<Long> ids = connection.awaitIds(2);
+			assertEquals(2, ids.size());
+			assertEquals(ids.get(0) + 1, ids.get(1));
+		} finally {
+			lateFanout.shutdown();
+		}
+	}
+
+	private StreamFanout newFanout(SnapshotSource snapshot, int queueCapacity) {
+		return new StreamFanout(meterRegistry, snapshot,
+			1, queueCapacity, OverflowPolicy.DROP_OLDEST, 16,
+			Duration.ZERO, Duration.ofMillis(50), 0, 1,
+			Duration.ofHours(1), Duration.ofSeconds(15), Duration.ofSeconds(45), Duration.ofMinutes(30));
+	}
+
+	private static MarketMessage message(String channel) {
+		return new MarketMessage(channel, "{\"BTC\": {\"current_price\": \"1\"}}".getBytes(StandardCharsets.UTF_8));
+	}
+
+	private static void awaitQuietly(CountDownLatch latch) {
+		try {
+			latch.await();
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	private StreamSubscriber register(String clientId) {
+		return fanout.register(clientId, new RecordingConnection(),
+			Subscription.of(List.of("crypto"), List.of(), null), null);
+	}
+
+	private static final class NoSnapshot implements SnapshotSource {
+		@Override
+		public void apply(MarketMessage message) {
+		}
+
+		@Override
+		public byte[] encode(Subscription subscription) {
+			return null;
+		}
+	}
+
+	// 쓰기 불가로 두어 writer 가 큐를 비우지 않으므로 큐 깊이로 ping 여부를 봄
+	private static final class RecordingConnection implements SseConnection {
+		private volatile boolean closed;
+
+		@Override
+		public boolean isReady() {
+			return false;
+		}
+
+		@Override
+		public void write(SseFrame frame) {
+		}
+
+		@Override
+		public void flush() {
+		}
+
+		@Override
+		public void close() {
+			closed = true;
+		}
+	}
+
+	// 인코딩 도중 다른 스레드에서 한 번 발행, 발행 잠금을 쥐고 인코딩하면 그 발행이 끝나지 않음
+	private static final class PublishingSnapshot implements SnapshotSource {
+		private StreamFanout fanout;
+		private boolean publishedDuringEncode;
+
+		@Override
+		public void apply(MarketMessage message) {
+		}
+
+		@Override
+		public byte[] encode(Subscription subscription) {
+			if (!publishedDuringEncode) {
+				Thread lane = new Thread(() -> fanout.publish(message("crypto.price.stream")));
+				lane.start();
+				try {
+					lane.join(TimeUnit.SECONDS.toMillis(5));
+				} catch (InterruptedException e) {
+					Thread.currentThread().interrupt();
+				}
+				publishedDuringEncode = !lane.isAlive();
+			}
+			return "{\"BTC\":{\"current_price\":\"1\"}}".getBytes(StandardCharsets.UTF_8);
+		}
+	}
+
+	// 받은 프레임의 id: 줄을 순서대로 모음
+	private static final class IdRecordingConnection implements SseConnection {
+		private final List<Long> ids = new ArrayList<>();
+
+		@Override
+		public boolean isReady() {
+			return true;
+		}
+
+		@Override
+		public synchronized void write(SseFrame frame) throws IOException {
+			ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+			frame.writeTo(bytes);
+			for (String line : bytes.toString(StandardCharsets.UTF_8).split("\n")) {
+				if (line.startsWith("id:")) {
+					ids.add(Long.parseLong(line.substring(3)));
+				}
+			}
+			notifyAll();
+		}
+
+		@Override
+		public void flush() {
+		}
+
+		@Override
+		public void close() {
+		}
+
+		private synchronized List<Long> awaitIds(int count) throws InterruptedException {
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+			while (ids.size() < count && System.nanoTime() < deadline) {
+				wait(100);
+			}
+			return new ArrayList<>(ids);
+		}
+	}
+}
@@ -0,0 +1,90 @@
+package live.gloticker.stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+import live.gloticker.constant.OverflowPolicy;
+import live.gloticker.constant.StreamChannel;
+
+class SymbolIndexTest {
+	private static final MarketMessage MESSAGE = new MarketMessage(StreamChannel.CRYPTO_CHANNEL.getChannel(),
+		"{\"BTC\": {\"current_price\": \"97012.10\"}, \"ETH\": {\"current_price\": \"3012.5\"}}"
+			.getBytes(StandardCharsets.UTF_8));
+
+	@Test
+	void selectsSegmentsOfSubscribedSymbols() {
+		SymbolIndex index = new SymbolIndex();
+		StreamSubscriber eth = subscriber("eth", "crypto", "ETH");
+		StreamSubscriber forex = subscriber("forex", "forex", "BTC");
+		index.add(eth);
+		index.add(forex);
+
+		var selections = index.select(MESSAGE, StreamChannel.CRYPTO_CHANNEL);
+
+		assertEquals(1, selections.size());
+		assertEquals(1, selections.get(eth).cardinality());
+		assertTrue(selections.get(eth).get(1));
+	}
+
+	@Test
+	void removeDropsEmptySymbols() {
+		SymbolIndex index = new SymbolIndex();
+		StreamSubscriber btc = subscriber("btc", "crypto", "BTC");
+		index.add(btc);
+		index.remove(btc);
+
+		assertTrue(index.isEmpty());
+		assertTrue(index.select(MESSAGE, StreamChannel.CRYPTO_CHANNEL).isEmpty());
+	}
+
+	// 같은 심볼을 여러 스레드가 동시에 등록/해제해도 등록된 구독자는 언제나 선택되어야 함
+	@Test
+	void concurrentAddAndRemoveNeverLoseSubscribers() throws Exception {
+		SymbolIndex index = new SymbolIndex();
+		int threads = 8;
+		int rounds = 20_000;
+		ExecutorService executor = Executors.newFixedThreadPool(threads);
+		CountDownLatch start = new CountDownLatch(1);
+		try {
+			List<Future<Integer>> results = new ArrayList<>();
+			for (int t = 0; t < threads; t++) {
+				StreamSubscriber subscriber = subscriber("client-" + t, "crypto", "BTC");
+				results.add(executor.submit(() -> {
+					start.await();
+					int lost = 0;
+					for (int i = 0; i < rounds; i++) {
+						index.add(subscriber);
+						if (!index.select(MESSAGE, StreamChannel.CRYPTO_CHANNEL).containsKey(subscriber)) {
+							lost++;
+						}
+						index.remove(subscriber);
+					}
+					return lost;
+				}));
+			}
+			start.countDown();
+			for (Future<Integer> result : results) {
+				assertEquals(0, result.get(60, TimeUnit.SECONDS));
+			}
+		} finally {
+			executor.shutdownNow();
+		}
+		assertTrue(index.isEmpty());
+	}
+
+	private static StreamSubscriber subscriber(String clientId, String channel, String symbol) {
+		Subscription subscription = Subscription.of(List.of(channel), List.of(symbol), null);
+		return new StreamSubscriber(clientId, null, subscription, 16, OverflowPolicy.DROP_OLDEST);
+	}
+}